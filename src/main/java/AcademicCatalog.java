@@ -0,0 +1,54 @@
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable, consistent view of the academic data: the typed tables, the
+ * prerequisite graph, seat and conflict analysis, the columnar query engine
+ * and the row search index, all built from the same load.
+ * Readers grab a catalog once per question and use only that, so a reload
+ * that happens meanwhile can never mix old and new data.
+ */
+public record AcademicCatalog(AcademicDatabase database, PrerequisiteGraph graph, ScheduleAnalyzer schedule,
+        AcademicQueryEngine queries, RowSearchIndex searchIndex, List<String> warnings) {
+
+    /**
+     * Loads a catalog from the text database, through its binary snapshot
+     * when {@code snapshotFile} is not null.
+     */
+    public static AcademicCatalog load(Path source, Path snapshotFile) throws IOException {
+        if (snapshotFile != null) {
+            AcademicSnapshot snapshot = AcademicSnapshot.loadOrCompile(source, snapshotFile);
+            return build(snapshot.getTables(), snapshot.getHeaders(), snapshot.getWarnings());
+        }
+        AcademicTableReader reader = new AcademicTableReader();
+        Map<String, List<String[]>> tables = reader.read(source);
+        return build(tables, reader.getHeaders(), reader.getWarnings());
+    }
+
+    public static AcademicCatalog of(AcademicDatabase database) {
+        return create(database, new RowSearchIndex(Map.of(), Map.of()), database.getWarnings());
+    }
+
+    private static AcademicCatalog build(Map<String, List<String[]>> tables, Map<String, String[]> headers,
+            List<String> readerWarnings) {
+        AcademicDatabase database = AcademicDatabase.fromTables(tables);
+        List<String> warnings = new ArrayList<>(readerWarnings);
+        warnings.addAll(database.getWarnings());
+        return create(database, new RowSearchIndex(tables, headers), List.copyOf(warnings));
+    }
+
+    private static AcademicCatalog create(AcademicDatabase database, RowSearchIndex searchIndex,
+            List<String> warnings) {
+        ScheduleAnalyzer schedule = new ScheduleAnalyzer(database);
+        return new AcademicCatalog(database, new PrerequisiteGraph(database), schedule,
+                new AcademicQueryEngine(database, schedule), searchIndex, warnings);
+    }
+
+    public long version() {
+        return database.getVersion();
+    }
+}
@@ -0,0 +1,169 @@
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Holds the current {@link AcademicCatalog} and replaces it when
+ * acu_database.txt changes. A watcher thread listens for changes to the file,
+ * a background worker rebuilds the catalog, and the new catalog is published
+ * with a single atomic swap. Readers call {@link #get()} without locking and
+ * keep using whichever catalog they grabbed, so in-flight emails are never
+ * blocked or handed half-built data.
+ *
+ * A failed reload leaves the previous catalog in place.
+ */
+public class AcademicDataStore implements Closeable {
+
+    // Editors often write a file in several steps; wait for them to settle
+    private static final long RELOAD_DELAY_MILLIS = 500;
+
+    private final Path source;
+    private final Path snapshotFile;
+    private final AtomicReference<AcademicCatalog> current = new AtomicReference<>();
+    private final List<Consumer<AcademicCatalog>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService worker;
+    private ScheduledFuture<?> pendingReload;
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Loads the catalog immediately.
+     *
+     * @param snapshotFile Binary snapshot to load through, may be null
+     */
+    public AcademicDataStore(Path source, Path snapshotFile) throws IOException {
+        this.source = source.toAbsolutePath();
+        this.snapshotFile = snapshotFile;
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "academic-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        current.set(AcademicCatalog.load(this.source, snapshotFile));
+    }
+
+    /**
+     * @return The latest successfully loaded catalog
+     */
+    public AcademicCatalog get() {
+        return current.get();
+    }
+
+    /**
+     * Registers a callback run on the reload thread after each new catalog is
+     * published.
+     */
+    public void addListener(Consumer<AcademicCatalog> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Rebuilds the catalog on the background worker.
+     *
+     * @return A future completing with the new catalog, or exceptionally if
+     * the file could not be loaded
+     */
+    public CompletableFuture<AcademicCatalog> reload() {
+        return CompletableFuture.supplyAsync(this::rebuild, worker);
+    }
+
+    private AcademicCatalog rebuild() {
+        try {
+            AcademicCatalog catalog = AcademicCatalog.load(source, snapshotFile);
+            current.set(catalog);
+            for (Consumer<AcademicCatalog> listener : listeners) {
+                try {
+                    listener.accept(catalog);
+                } catch (RuntimeException e) {
+                    System.out.println("Academic data listener failed: " + e.getMessage());
+                }
+            }
+            return catalog;
+        } catch (IOException e) {
+            System.out.println("Failed to reload " + source + ", keeping previous data: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts watching the database file's directory. Bursts of change events
+     * are coalesced into a single reload.
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        Path directory = source.getParent();
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService service = watchService;
+        watcher = new Thread(() -> watch(service), "academic-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService service) {
+        Path name = source.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    scheduleReload();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watching stopped
+        }
+    }
+
+    private synchronized void scheduleReload() {
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        pendingReload = worker.schedule(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                // Already reported; the previous catalog stays current
+            }
+        }, RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watcher.interrupt();
+            watchService = null;
+            watcher = null;
+        }
+        worker.shutdownNow();
+    }
+}
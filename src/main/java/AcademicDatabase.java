@@ -0,0 +1,457 @@
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory, read-only copy of the tables in acu_database.txt with hash
+ * indexes on their keys, so structured questions (a course's sections, a
+ * student's enrollments, a course's prerequisites) can be answered locally
+ * without a retrieval round trip.
+ *
+ * Instances are immutable once built. Each load gets a new {@link #getVersion()
+ * version} so anything derived from a database can tell when it is stale.
+ *
+ * Every course reference in the tables is interned in one
+ * {@link CourseKeyIndex}, and the per-course indexes are arrays addressed by
+ * its dense IDs, so a course lookup in any spelling is a perfect-hash probe
+ * and an array read.
+ */
+public class AcademicDatabase {
+
+    public record College(String id, String name) {
+
+    }
+
+    public record Department(String id, String name, String collegeId) {
+
+    }
+
+    public record Course(String id, String departmentId, String title, String number, int hours) {
+
+    }
+
+    public record Section(int crn, int capacity, String room, String courseId, String term,
+            LocalDate startDate, LocalDate endDate, String days) {
+
+    }
+
+    public record Student(int id, String firstName, String lastName) {
+
+        public String fullName() {
+            return firstName + " " + lastName;
+        }
+    }
+
+    /**
+     * A student's seat in a section; grade is null while the course is in
+     * progress.
+     */
+    public record Enrollment(int studentId, int crn, String grade) {
+
+    }
+
+    public record Teacher(int id, String firstName, String lastName, String departmentId, boolean adjunct) {
+
+    }
+
+    public record Major(String id, String title, String departmentId, String requirements, int hours, double gpa) {
+
+    }
+
+    public record Concentration(String id, String majorId, String title, String requirements) {
+
+    }
+
+    public record Requisite(String courseId, String requiredId) {
+
+    }
+
+    public record SectionCourse(String courseId, int crn) {
+
+    }
+
+    /**
+     * The four requisite tables. {@code prereq} is the older single-list form;
+     * {@code and_prereq} rows must all be met, any one {@code or_prereq} row
+     * for a course is enough, and {@code coreq} courses may be taken alongside.
+     */
+    public enum RequisiteKind {
+        PREREQ("prereq"),
+        AND("and_prereq"),
+        OR("or_prereq"),
+        COREQ("coreq");
+
+        private final String table;
+
+        RequisiteKind(String table) {
+            this.table = table;
+        }
+
+        public String getTable() {
+            return table;
+        }
+    }
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long version;
+    private final List<String> warnings;
+
+    private final Map<String, College> collegesById;
+    private final Map<String, Department> departmentsById;
+    private final CourseKeyIndex courseKeys;
+    private final Collection<Course> courses;
+    private final Course[] coursesByKey;
+    private final Map<String, List<Course>> coursesByDepartment;
+    private final Map<Integer, Section> sectionsByCrn;
+    private final List<List<Section>> sectionsByCourse;
+    private final Map<String, List<Section>> sectionsByTerm;
+    private final Map<Integer, Student> studentsById;
+    private final Map<Integer, List<Enrollment>> enrollmentsByStudent;
+    private final Map<Integer, List<Enrollment>> enrollmentsBySection;
+    private final Map<Integer, Teacher> teachersById;
+    private final Map<String, Major> majorsById;
+    private final Map<Integer, List<String>> majorsByStudent;
+    private final Map<String, List<String>> coursesByMajor;
+    private final Map<String, List<Concentration>> concentrationsByMajor;
+    private final List<SectionCourse> sectionCourses;
+    private final Map<RequisiteKind, List<Requisite>> requisites = new EnumMap<>(RequisiteKind.class);
+    private final Map<RequisiteKind, List<List<Requisite>>> requisitesByCourse = new EnumMap<>(RequisiteKind.class);
+    private final Map<RequisiteKind, List<List<Requisite>>> requisitesByRequired = new EnumMap<>(RequisiteKind.class);
+
+    /**
+     * Parses acu_database.txt.
+     */
+    public static AcademicDatabase load(Path file) throws IOException {
+        AcademicTableReader reader = new AcademicTableReader();
+        Map<String, List<String[]>> tables = reader.read(file);
+        return new AcademicDatabase(tables, reader.getWarnings());
+    }
+
+    /**
+     * Builds the typed tables from rows already split into columns, in the
+     * column order of acu_database.txt.
+     */
+    public static AcademicDatabase fromTables(Map<String, List<String[]>> tables) {
+        return new AcademicDatabase(tables, List.of());
+    }
+
+    private AcademicDatabase(Map<String, List<String[]>> tables, List<String> readerWarnings) {
+        List<String> problems = new ArrayList<>(readerWarnings);
+        this.version = VERSIONS.incrementAndGet();
+
+        List<College> colleges = rows(tables, "college", problems, r -> new College(r[0], r[1]));
+        List<Department> departments = rows(tables, "department", problems, r -> new Department(r[0], r[1], r[2]));
+        List<Course> courses = rows(tables, "course", problems,
+                r -> new Course(r[0], r[1], r[2], r[3], Integer.parseInt(r[4])));
+        List<Section> sections = rows(tables, "section", problems,
+                r -> new Section(Integer.parseInt(r[0]), Integer.parseInt(r[1]), r[2], r[3], r[4],
+                        LocalDate.parse(r[5]), LocalDate.parse(r[6]), r[7]));
+        List<Student> students = rows(tables, "student", problems,
+                r -> new Student(Integer.parseInt(r[0]), r[1], r[2]));
+        List<Enrollment> enrollments = rows(tables, "student_section", problems,
+                r -> new Enrollment(Integer.parseInt(r[0]), Integer.parseInt(r[1]), "null".equals(r[2]) ? null : r[2]));
+        List<Teacher> teachers = rows(tables, "teachers", problems,
+                r -> new Teacher(Integer.parseInt(r[0]), r[1], r[2], r[3], "1".equals(r[4])));
+        List<Major> majors = rows(tables, "major", problems,
+                r -> new Major(r[0], r[1], r[2], r[3], Integer.parseInt(r[4]), Double.parseDouble(r[5])));
+        List<Concentration> concentrations = rows(tables, "concentration", problems,
+                r -> new Concentration(r[0], r[1], r[2], r[3]));
+        List<String[]> studentMajors = rows(tables, "student_major", problems, r -> new String[]{r[0], r[1]});
+        List<String[]> majorClasses = rows(tables, "major_class", problems, r -> new String[]{r[0], r[1]});
+        this.sectionCourses = rows(tables, "section_course", problems,
+                r -> new SectionCourse(r[0], Integer.parseInt(r[1])));
+        for (RequisiteKind kind : RequisiteKind.values()) {
+            requisites.put(kind, rows(tables, kind.getTable(), problems, r -> new Requisite(r[0], r[1])));
+        }
+
+        // Course table first so catalog courses get the lowest IDs
+        List<String> references = new ArrayList<>();
+        courses.forEach(course -> references.add(course.id()));
+        sections.forEach(section -> references.add(section.courseId()));
+        sectionCourses.forEach(row -> references.add(row.courseId()));
+        majorClasses.forEach(row -> references.add(row[1]));
+        for (List<Requisite> list : requisites.values()) {
+            for (Requisite requisite : list) {
+                references.add(requisite.courseId());
+                references.add(requisite.requiredId());
+            }
+        }
+        this.courseKeys = new CourseKeyIndex(references);
+
+        this.collegesById = unique(colleges, College::id);
+        this.departmentsById = unique(departments, Department::id);
+        Map<String, Course> coursesById = unique(courses, Course::id);
+        this.courses = Collections.unmodifiableCollection(coursesById.values());
+        this.coursesByKey = new Course[courseKeys.size()];
+        for (Course course : this.courses) {
+            int key = courseKeys.idOf(course.id());
+            if (key >= 0) {
+                coursesByKey[key] = course;
+            }
+        }
+        this.coursesByDepartment = group(courses, Course::departmentId);
+        this.sectionsByCrn = unique(sections, Section::crn);
+        this.sectionsByCourse = byCourse(sections, Section::courseId);
+        this.sectionsByTerm = group(sections, Section::term);
+        this.studentsById = unique(students, Student::id);
+        this.enrollmentsByStudent = group(enrollments, Enrollment::studentId);
+        this.enrollmentsBySection = group(enrollments, Enrollment::crn);
+        this.teachersById = unique(teachers, Teacher::id);
+        this.majorsById = unique(majors, Major::id);
+        this.concentrationsByMajor = group(concentrations, Concentration::majorId);
+
+        Map<Integer, List<String>> byStudent = new HashMap<>();
+        for (String[] row : studentMajors) {
+            try {
+                byStudent.computeIfAbsent(Integer.parseInt(row[0]), key -> new ArrayList<>()).add(row[1]);
+            } catch (NumberFormatException e) {
+                problems.add("student_major: bad student id \"" + row[0] + "\"");
+            }
+        }
+        this.majorsByStudent = freeze(byStudent);
+        Map<String, List<String>> byMajor = new HashMap<>();
+        for (String[] row : majorClasses) {
+            byMajor.computeIfAbsent(row[0], key -> new ArrayList<>()).add(row[1]);
+        }
+        this.coursesByMajor = freeze(byMajor);
+
+        for (RequisiteKind kind : RequisiteKind.values()) {
+            requisitesByCourse.put(kind, byCourse(requisites.get(kind), Requisite::courseId));
+            requisitesByRequired.put(kind, byCourse(requisites.get(kind), Requisite::requiredId));
+        }
+        this.warnings = Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * @return Identifies this load; a later load always has a larger version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Rows that were skipped because they could not be read
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public College getCollege(String id) {
+        return collegesById.get(id);
+    }
+
+    public Department getDepartment(String id) {
+        return departmentsById.get(id);
+    }
+
+    public Collection<Department> getDepartments() {
+        return Collections.unmodifiableCollection(departmentsById.values());
+    }
+
+    /**
+     * @param id Course ID in any spacing or case, e.g. "CS 120"
+     */
+    public Course getCourse(String id) {
+        int key = courseKeys.idOf(id);
+        return key < 0 ? null : coursesByKey[key];
+    }
+
+    /**
+     * @param key ID from {@link #getCourseKeys()}
+     * @return The course, or null if the key is only referenced by other
+     * tables
+     */
+    public Course getCourse(int key) {
+        return coursesByKey[key];
+    }
+
+    public Collection<Course> getCourses() {
+        return courses;
+    }
+
+    /**
+     * @return Dense IDs for every course referenced anywhere in the tables
+     */
+    public CourseKeyIndex getCourseKeys() {
+        return courseKeys;
+    }
+
+    public List<Course> getCoursesInDepartment(String departmentId) {
+        return coursesByDepartment.getOrDefault(departmentId, List.of());
+    }
+
+    public Section getSection(int crn) {
+        return sectionsByCrn.get(crn);
+    }
+
+    public Collection<Section> getSections() {
+        return Collections.unmodifiableCollection(sectionsByCrn.values());
+    }
+
+    public List<Section> getSectionsForCourse(String courseId) {
+        return atKey(sectionsByCourse, courseId);
+    }
+
+    /**
+     * @param term Term as written in the data, e.g. "Spring 2025"
+     */
+    public List<Section> getSectionsInTerm(String term) {
+        return sectionsByTerm.getOrDefault(term, List.of());
+    }
+
+    public List<SectionCourse> getSectionCourses() {
+        return sectionCourses;
+    }
+
+    public Student getStudent(int id) {
+        return studentsById.get(id);
+    }
+
+    public Collection<Student> getStudents() {
+        return Collections.unmodifiableCollection(studentsById.values());
+    }
+
+    public List<Enrollment> getEnrollmentsForStudent(int studentId) {
+        return enrollmentsByStudent.getOrDefault(studentId, List.of());
+    }
+
+    public List<Enrollment> getEnrollmentsForSection(int crn) {
+        return enrollmentsBySection.getOrDefault(crn, List.of());
+    }
+
+    public Teacher getTeacher(int id) {
+        return teachersById.get(id);
+    }
+
+    public Collection<Teacher> getTeachers() {
+        return Collections.unmodifiableCollection(teachersById.values());
+    }
+
+    public Major getMajor(String id) {
+        return majorsById.get(id);
+    }
+
+    public Collection<Major> getMajors() {
+        return Collections.unmodifiableCollection(majorsById.values());
+    }
+
+    /**
+     * @return Major IDs the student is declared in
+     */
+    public List<String> getMajorsForStudent(int studentId) {
+        return majorsByStudent.getOrDefault(studentId, List.of());
+    }
+
+    /**
+     * @return Course IDs listed for the major in major_class
+     */
+    public List<String> getCoursesForMajor(String majorId) {
+        return coursesByMajor.getOrDefault(majorId, List.of());
+    }
+
+    /**
+     * @return Major IDs that have courses listed in major_class, including
+     * ones missing from the major table
+     */
+    public Set<String> getMajorsWithCourses() {
+        return Collections.unmodifiableSet(coursesByMajor.keySet());
+    }
+
+    public List<Concentration> getConcentrationsForMajor(String majorId) {
+        return concentrationsByMajor.getOrDefault(majorId, List.of());
+    }
+
+    public List<Requisite> getRequisites(RequisiteKind kind) {
+        return requisites.get(kind);
+    }
+
+    /**
+     * @return Rows of the given kind whose course is {@code courseId}
+     */
+    public List<Requisite> getRequisitesFor(RequisiteKind kind, String courseId) {
+        return atKey(requisitesByCourse.get(kind), courseId);
+    }
+
+    /**
+     * @return Rows of the given kind that require {@code courseId}
+     */
+    public List<Requisite> getRequisitesOn(RequisiteKind kind, String courseId) {
+        return atKey(requisitesByRequired.get(kind), courseId);
+    }
+
+    private static <T> List<T> rows(Map<String, List<String[]>> tables, String table, List<String> problems,
+            Function<String[], T> mapper) {
+        List<String[]> raw = tables.getOrDefault(table, List.of());
+        List<T> typed = new ArrayList<>(raw.size());
+        for (String[] row : raw) {
+            try {
+                typed.add(mapper.apply(row));
+            } catch (RuntimeException e) {
+                problems.add(table + ": could not read row " + String.join(" | ", row) + " (" + e.getMessage() + ")");
+            }
+        }
+        return Collections.unmodifiableList(typed);
+    }
+
+    /**
+     * Indexes rows by a unique key. The first row wins when the data repeats
+     * a key.
+     */
+    private static <K, T> Map<K, T> unique(List<T> rows, Function<T, K> key) {
+        Map<K, T> index = new LinkedHashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            index.putIfAbsent(key.apply(row), row);
+        }
+        return index;
+    }
+
+    private static <K, T> Map<K, List<T>> group(List<T> rows, Function<T, K> key) {
+        Map<K, List<T>> index = new HashMap<>();
+        for (T row : rows) {
+            index.computeIfAbsent(key.apply(row), k -> new ArrayList<>()).add(row);
+        }
+        return freeze(index);
+    }
+
+    /**
+     * Groups rows by course into a list indexed by course key ID.
+     */
+    private <T> List<List<T>> byCourse(List<T> rows, Function<T, String> course) {
+        List<List<T>> index = new ArrayList<>(Collections.nCopies(courseKeys.size(), null));
+        for (T row : rows) {
+            int key = courseKeys.idOf(course.apply(row));
+            if (key < 0) {
+                continue;
+            }
+            if (index.get(key) == null) {
+                index.set(key, new ArrayList<>());
+            }
+            index.get(key).add(row);
+        }
+        index.replaceAll(list -> list == null ? List.of() : List.copyOf(list));
+        return index;
+    }
+
+    private <T> List<T> atKey(List<List<T>> index, String courseId) {
+        int key = courseKeys.idOf(courseId);
+        return key < 0 ? List.of() : index.get(key);
+    }
+
+    private static <K, T> Map<K, List<T>> freeze(Map<K, List<T>> index) {
+        index.replaceAll((key, list) -> List.copyOf(list));
+        return index;
+    }
+}
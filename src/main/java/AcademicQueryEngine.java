@@ -0,0 +1,196 @@
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar copies of the course, department, section and major_class tables
+ * with a query that combines them. Course keys use the database's
+ * {@link CourseKeyIndex} IDs and department codes share one dictionary, so
+ * every join compares ints.
+ *
+ * Filters are pushed down to the table they belong to before anything is
+ * joined, so a query like "3-hour COSAE courses with open Fall 2025 sections"
+ * scans and joins only the rows that survive their own table's filters.
+ */
+public class AcademicQueryEngine {
+
+    /**
+     * Filters for {@link #findCourses}; null or blank fields are not applied.
+     *
+     * @param onlyOpen Only sections with open seats; implies the section join
+     */
+    public record CourseQuery(String college, String department, Integer minHours, Integer maxHours,
+            String term, boolean onlyOpen, String major) {
+
+        boolean filtersSections() {
+            return present(term) || onlyOpen;
+        }
+    }
+
+    /**
+     * @param sections Sections passing the section filters; empty when the
+     * query has none
+     */
+    public record CourseMatch(AcademicDatabase.Course course, List<AcademicDatabase.Section> sections) {
+
+    }
+
+    private final AcademicDatabase database;
+    private final ColumnTable courses;
+    private final ColumnTable departments;
+    private final ColumnTable sections;
+    private final ColumnTable majorClasses;
+
+    public AcademicQueryEngine(AcademicDatabase database, ScheduleAnalyzer schedule) {
+        this.database = database;
+        CourseKeyIndex keys = database.getCourseKeys();
+        ColumnTable.Dictionary departmentCodes = new ColumnTable.Dictionary();
+
+        List<AcademicDatabase.Course> courseList = new ArrayList<>(database.getCourses());
+        int[] courseKeys = new int[courseList.size()];
+        int[] hours = new int[courseList.size()];
+        String[] courseDepartments = new String[courseList.size()];
+        for (int i = 0; i < courseKeys.length; i++) {
+            AcademicDatabase.Course course = courseList.get(i);
+            courseKeys[i] = keys.idOf(course.id());
+            hours[i] = course.hours();
+            courseDepartments[i] = course.departmentId();
+        }
+        this.courses = new ColumnTable.Builder("course", courseKeys.length)
+                .ints("key", courseKeys)
+                .ints("hours", hours)
+                .strings("department", courseDepartments, departmentCodes)
+                .build();
+
+        List<AcademicDatabase.Department> departmentList = new ArrayList<>(database.getDepartments());
+        String[] departmentIds = new String[departmentList.size()];
+        String[] colleges = new String[departmentList.size()];
+        for (int i = 0; i < departmentIds.length; i++) {
+            departmentIds[i] = departmentList.get(i).id();
+            colleges[i] = departmentList.get(i).collegeId();
+        }
+        this.departments = new ColumnTable.Builder("department", departmentIds.length)
+                .strings("id", departmentIds, departmentCodes)
+                .strings("college", colleges)
+                .build();
+
+        List<AcademicDatabase.Section> sectionList = new ArrayList<>(database.getSections());
+        int n = sectionList.size();
+        int[] crns = new int[n];
+        int[] sectionCourses = new int[n];
+        String[] terms = new String[n];
+        int[] openSeats = new int[n];
+        for (int i = 0; i < n; i++) {
+            AcademicDatabase.Section section = sectionList.get(i);
+            crns[i] = section.crn();
+            sectionCourses[i] = keys.idOf(section.courseId());
+            terms[i] = section.term().toUpperCase();
+            openSeats[i] = schedule.getOpenSeats(section.crn());
+        }
+        this.sections = new ColumnTable.Builder("section", n)
+                .ints("crn", crns)
+                .ints("course", sectionCourses)
+                .strings("term", terms)
+                .ints("open_seats", openSeats)
+                .build();
+
+        List<String> majors = new ArrayList<>();
+        List<Integer> majorCourses = new ArrayList<>();
+        for (String majorId : database.getMajorsWithCourses()) {
+            for (String courseId : database.getCoursesForMajor(majorId)) {
+                majors.add(majorId);
+                majorCourses.add(keys.idOf(courseId));
+            }
+        }
+        this.majorClasses = new ColumnTable.Builder("major_class", majors.size())
+                .strings("major", majors.toArray(String[]::new))
+                .ints("course", majorCourses.stream().mapToInt(Integer::intValue).toArray())
+                .build();
+    }
+
+    /**
+     * @return The columnar table by name: course, department, section or
+     * major_class
+     */
+    public ColumnTable getTable(String name) {
+        return switch (name) {
+            case "course" -> courses;
+            case "department" -> departments;
+            case "section" -> sections;
+            case "major_class" -> majorClasses;
+            default -> throw new IllegalArgumentException("No table " + name);
+        };
+    }
+
+    /**
+     * @return Courses matching every filter, in course table order
+     */
+    public List<CourseMatch> findCourses(CourseQuery query) {
+        List<ColumnTable.Predicate> courseFilters = new ArrayList<>();
+        if (present(query.department())) {
+            courseFilters.add(courses.eq("department", query.department().strip().toUpperCase()));
+        }
+        if (query.minHours() != null) {
+            courseFilters.add(new ColumnTable.Predicate("hours", ColumnTable.Op.GE, query.minHours()));
+        }
+        if (query.maxHours() != null) {
+            courseFilters.add(new ColumnTable.Predicate("hours", ColumnTable.Op.LE, query.maxHours()));
+        }
+        int[] courseRows = courses.scan(courseFilters);
+
+        if (present(query.college()) && courseRows.length > 0) {
+            int[] departmentRows = departments.scan(List.of(
+                    departments.eq("college", query.college().strip().toUpperCase())));
+            courseRows = distinct(ColumnTable.hashJoin(courses, courseRows, "department",
+                    departments, departmentRows, "id")[0]);
+        }
+        if (present(query.major()) && courseRows.length > 0) {
+            int[] majorRows = majorClasses.scan(List.of(majorClasses.eq("major", query.major().strip().toUpperCase())));
+            courseRows = distinct(ColumnTable.hashJoin(courses, courseRows, "key",
+                    majorClasses, majorRows, "course")[0]);
+        }
+
+        Map<Integer, List<AcademicDatabase.Section>> sectionsByRow = new LinkedHashMap<>();
+        if (query.filtersSections() && courseRows.length > 0) {
+            List<ColumnTable.Predicate> sectionFilters = new ArrayList<>();
+            if (present(query.term())) {
+                sectionFilters.add(sections.eq("term", query.term().strip().toUpperCase()));
+            }
+            if (query.onlyOpen()) {
+                sectionFilters.add(new ColumnTable.Predicate("open_seats", ColumnTable.Op.GT, 0));
+            }
+            int[][] pairs = ColumnTable.hashJoin(courses, courseRows, "key",
+                    sections, sections.scan(sectionFilters), "course");
+            for (int i = 0; i < pairs[0].length; i++) {
+                sectionsByRow.computeIfAbsent(pairs[0][i], row -> new ArrayList<>())
+                        .add(database.getSection(sections.getInt("crn", pairs[1][i])));
+            }
+            courseRows = distinct(pairs[0]);
+        }
+
+        List<CourseMatch> matches = new ArrayList<>(courseRows.length);
+        for (int row : courseRows) {
+            AcademicDatabase.Course course = database.getCourse(courses.getInt("key", row));
+            List<AcademicDatabase.Section> found = sectionsByRow.getOrDefault(row, List.of());
+            if (found.size() > 1) {
+                found.sort((a, b) -> Integer.compare(a.crn(), b.crn()));
+            }
+            matches.add(new CourseMatch(course, found));
+        }
+        return matches;
+    }
+
+    /**
+     * @return The distinct row numbers, ascending
+     */
+    private static int[] distinct(int[] rows) {
+        return Arrays.stream(rows).sorted().distinct().toArray();
+    }
+
+    private static boolean present(String value) {
+        return value != null && !value.isBlank();
+    }
+}
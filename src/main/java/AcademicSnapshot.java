@@ -0,0 +1,264 @@
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled binary form of acu_database.txt. The text file is split into
+ * columns once, by {@link #compile}, and saved as a string dictionary: every
+ * distinct value is stored once and every cell as a fixed-width 32-bit
+ * reference into it. Loading memory-maps the file and reads the columns back
+ * without any tokenising or column-splitting heuristics; numeric fields are
+ * parsed once, by {@link AcademicDatabase}, like any other table rows.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * "ACUS" | format version | source size (long) | source modified millis (long)
+ * string count | offsets[count + 1] | UTF-8 bytes
+ * warning count | warning string ids
+ * table count, then per table:
+ *   name id | header count | header ids | row count | column count
+ *   per column: string ids[row count]
+ * </pre>
+ */
+public class AcademicSnapshot {
+
+    private static final int MAGIC = 0x41435553; // "ACUS"
+    private static final int FORMAT_VERSION = 2;
+
+    private final Map<String, List<String[]>> tables;
+    private final Map<String, String[]> headers;
+    private final List<String> warnings;
+    private final long sourceSize;
+    private final long sourceModified;
+
+    private AcademicSnapshot(Map<String, List<String[]>> tables, Map<String, String[]> headers,
+            List<String> warnings, long sourceSize, long sourceModified) {
+        this.tables = tables;
+        this.headers = headers;
+        this.warnings = warnings;
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+    }
+
+    /**
+     * Returns the snapshot for a text database, compiling it first when the
+     * snapshot is missing, unreadable or older than the text file.
+     */
+    public static AcademicSnapshot loadOrCompile(Path source, Path snapshot) throws IOException {
+        if (Files.exists(snapshot)) {
+            try {
+                AcademicSnapshot loaded = load(snapshot);
+                if (loaded.isCurrent(source)) {
+                    return loaded;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Recompiling " + snapshot + ": " + e.getMessage());
+            }
+        }
+        return compile(source, snapshot);
+    }
+
+    /**
+     * Parses the text database and writes its snapshot.
+     *
+     * @return The compiled snapshot, ready to use
+     */
+    public static AcademicSnapshot compile(Path source, Path snapshot) throws IOException {
+        AcademicTableReader reader = new AcademicTableReader();
+        Map<String, List<String[]>> tables = reader.read(source);
+        AcademicSnapshot compiled = new AcademicSnapshot(tables, reader.getHeaders(), reader.getWarnings(),
+                Files.size(source), Files.getLastModifiedTime(source).toMillis());
+        compiled.write(snapshot);
+        return compiled;
+    }
+
+    public static AcademicSnapshot load(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        }
+    }
+
+    /**
+     * @return True if the snapshot was compiled from the file as it is now
+     */
+    public boolean isCurrent(Path source) throws IOException {
+        return Files.size(source) == sourceSize
+                && Files.getLastModifiedTime(source).toMillis() == sourceModified;
+    }
+
+    public Map<String, List<String[]>> getTables() {
+        return tables;
+    }
+
+    public Map<String, String[]> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return Rows the text reader skipped when the snapshot was compiled
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public AcademicDatabase toDatabase() {
+        return AcademicDatabase.fromTables(tables);
+    }
+
+    private void write(Path snapshot) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+
+        out.writeInt(warnings.size());
+        for (String warning : warnings) {
+            out.writeInt(intern(warning, ids, strings));
+        }
+        out.writeInt(tables.size());
+        for (Map.Entry<String, List<String[]>> table : tables.entrySet()) {
+            List<String[]> rows = table.getValue();
+            String[] header = headers.getOrDefault(table.getKey(), new String[0]);
+            int columns = rows.isEmpty() ? header.length : rows.get(0).length;
+            out.writeInt(intern(table.getKey(), ids, strings));
+            out.writeInt(header.length);
+            for (String name : header) {
+                out.writeInt(intern(name, ids, strings));
+            }
+            out.writeInt(rows.size());
+            out.writeInt(columns);
+            for (int column = 0; column < columns; column++) {
+                for (String[] row : rows) {
+                    out.writeInt(intern(column < row.length ? row[column] : "", ids, strings));
+                }
+            }
+        }
+        out.flush();
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream(body.size() + strings.size() * 16 + 64);
+        DataOutputStream head = new DataOutputStream(file);
+        head.writeInt(MAGIC);
+        head.writeInt(FORMAT_VERSION);
+        head.writeLong(sourceSize);
+        head.writeLong(sourceModified);
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        int offset = 0;
+        head.writeInt(strings.size());
+        head.writeInt(0);
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            offset += bytes.length;
+            head.writeInt(offset);
+        }
+        for (byte[] bytes : encoded) {
+            head.write(bytes);
+        }
+        body.writeTo(head);
+        head.flush();
+
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        Files.write(temp, file.toByteArray());
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static AcademicSnapshot read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 24 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not an academic database snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        long sourceSize = buffer.getLong();
+        long sourceModified = buffer.getLong();
+
+        int count = buffer.getInt();
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i <= count; i++) {
+            offsets[i] = buffer.getInt();
+        }
+        int base = buffer.position();
+        String[] strings = new String[count];
+        byte[] scratch = new byte[0];
+        for (int i = 0; i < count; i++) {
+            int length = offsets[i + 1] - offsets[i];
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(base + offsets[i], scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        buffer.position(base + offsets[count]);
+
+        int warningCount = buffer.getInt();
+        List<String> warnings = new ArrayList<>(warningCount);
+        for (int i = 0; i < warningCount; i++) {
+            warnings.add(strings[buffer.getInt()]);
+        }
+
+        int tableCount = buffer.getInt();
+        Map<String, List<String[]>> tables = new LinkedHashMap<>();
+        Map<String, String[]> headers = new LinkedHashMap<>();
+        for (int t = 0; t < tableCount; t++) {
+            String name = strings[buffer.getInt()];
+            String[] header = new String[buffer.getInt()];
+            for (int i = 0; i < header.length; i++) {
+                header[i] = strings[buffer.getInt()];
+            }
+            int rowCount = buffer.getInt();
+            int columns = buffer.getInt();
+            String[][] rows = new String[rowCount][columns];
+            for (int column = 0; column < columns; column++) {
+                for (int row = 0; row < rowCount; row++) {
+                    rows[row][column] = strings[buffer.getInt()];
+                }
+            }
+            tables.put(name, new ArrayList<>(List.of(rows)));
+            headers.put(name, header);
+        }
+        return new AcademicSnapshot(tables, headers, warnings, sourceSize, sourceModified);
+    }
+
+    private static int intern(String value, Map<String, Integer> ids, List<String> strings) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * Compiles a snapshot from the command line:
+     * {@code AcademicSnapshot acu_database.txt acu_database.snapshot}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: AcademicSnapshot <database.txt> <snapshot>");
+            return;
+        }
+        AcademicSnapshot snapshot = compile(Path.of(args[0]), Path.of(args[1]));
+        int rows = 0;
+        for (List<String[]> table : snapshot.getTables().values()) {
+            rows += table.size();
+        }
+        System.out.println("Compiled " + snapshot.getTables().size() + " tables, " + rows + " rows into " + args[1]);
+    }
+}
@@ -0,0 +1,230 @@
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the {@code Table: <name>} sections of acu_database.txt into rows of
+ * column values. The file is whitespace separated but several columns (titles,
+ * names, rooms, terms, requirement text) contain spaces, so each known table
+ * has its own rule for deciding where one column ends and the next begins.
+ *
+ * Course references are normalised to their compact form ("CHEM 133" becomes
+ * "CHEM133") so rows from different tables join on the same key. Rows that
+ * cannot be split are skipped and reported through {@link #getWarnings()}.
+ */
+public class AcademicTableReader {
+
+    private final List<String> warnings = new ArrayList<>();
+    private final Map<String, String[]> headers = new LinkedHashMap<>();
+
+    public Map<String, List<String[]>> read(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return Rows for every table in file order, keyed by table name
+     */
+    public Map<String, List<String[]>> parse(List<String> lines) {
+        Map<String, List<String[]>> tables = new LinkedHashMap<>();
+        String table = null;
+        int columns = 0;
+        List<String[]> rows = null;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("Table:")) {
+                table = line.substring("Table:".length()).strip();
+                rows = tables.computeIfAbsent(table, key -> new ArrayList<>());
+                columns = 0;
+                continue;
+            }
+            if (table == null) {
+                warnings.add("Line " + (i + 1) + ": row outside of any table");
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            if (columns == 0) {
+                columns = tokens.length;
+                headers.putIfAbsent(table, tokens);
+                continue;
+            }
+            String[] row = splitRow(table, tokens, columns);
+            if (row == null) {
+                warnings.add("Line " + (i + 1) + ": could not read " + table + " row \"" + line + "\"");
+            } else {
+                rows.add(row);
+            }
+        }
+        return tables;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * @return The column names from each table's header line, as written in
+     * the file
+     */
+    public Map<String, String[]> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Compacts a course reference so "CHEM 133", "chem133" and "CHEM133" all
+     * compare equal.
+     */
+    public static String courseKey(String reference) {
+        StringBuilder key = new StringBuilder(reference.length());
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    static String[] splitRow(String table, String[] t, int columns) {
+        int n = t.length;
+        switch (table) {
+            case "college":
+                return n < 2 ? null : new String[]{t[0], join(t, 1, n)};
+            case "student":
+                return n < 3 ? null : new String[]{t[0], t[1], join(t, 2, n)};
+            case "department":
+                return n < 3 ? null : new String[]{t[0], join(t, 1, n - 1), t[n - 1]};
+            case "course":
+                return n < 5 ? null : new String[]{t[0], t[1], join(t, 2, n - 2), t[n - 2], t[n - 1]};
+            case "teachers":
+                return n < 5 ? null : new String[]{t[0], t[1], join(t, 2, n - 2), t[n - 2], t[n - 1]};
+            case "major": {
+                // id title deptID reqtext hrs gpa; requirement text starts with "Minimum"
+                int req = indexOf(t, "Minimum", 3, n - 2);
+                if (req < 0) {
+                    req = 3;
+                }
+                return n < 6 ? null : new String[]{t[0], join(t, 1, req - 1), t[req - 1], join(t, req, n - 2), t[n - 2], t[n - 1]};
+            }
+            case "concentration": {
+                int req = indexOf(t, "Minimum", 3, n);
+                if (req < 0) {
+                    req = 3;
+                }
+                return n < 4 ? null : new String[]{t[0], t[1], join(t, 2, req), join(t, req, n)};
+            }
+            case "section":
+                return splitSection(t);
+            case "prereq":
+            case "and_prereq":
+            case "or_prereq":
+            case "coreq": {
+                List<String> refs = courseRefs(t, 0, n);
+                return refs.size() != 2 ? null : refs.toArray(String[]::new);
+            }
+            case "section_course":
+                return n < 2 ? null : new String[]{courseKey(join(t, 0, n - 1)), t[n - 1]};
+            case "major_class":
+                return n < 2 ? null : new String[]{t[0], courseKey(join(t, 1, n))};
+            default:
+                if (n < columns) {
+                    return null;
+                }
+                String[] row = Arrays.copyOf(t, columns);
+                row[columns - 1] = join(t, columns - 1, n);
+                return row;
+        }
+    }
+
+    /**
+     * crn max room courseID term startdate enddate days. The term is two words
+     * and some rooms contain a space (and are listed before the capacity), so
+     * the row is read from the right and the leftover middle tokens are split
+     * into the numeric capacity and the room.
+     */
+    private static String[] splitSection(String[] t) {
+        int n = t.length;
+        if (n < 8) {
+            return null;
+        }
+        String capacity = null;
+        StringBuilder room = new StringBuilder();
+        for (int i = 1; i < n - 6; i++) {
+            if (capacity == null && isDigits(t[i])) {
+                capacity = t[i];
+            } else {
+                if (room.length() > 0) {
+                    room.append(' ');
+                }
+                room.append(t[i]);
+            }
+        }
+        if (capacity == null) {
+            return null;
+        }
+        return new String[]{t[0], capacity, room.toString(), courseKey(t[n - 6]),
+            t[n - 5] + " " + t[n - 4], t[n - 3], t[n - 2], t[n - 1]};
+    }
+
+    /**
+     * Reads course references where a reference is either one token with a
+     * number in it ("CS130") or a subject followed by a number ("MATH 124").
+     */
+    private static List<String> courseRefs(String[] t, int from, int to) {
+        List<String> refs = new ArrayList<>(2);
+        int i = from;
+        while (i < to) {
+            if (!hasDigit(t[i]) && i + 1 < to && hasDigit(t[i + 1]) && isDigits(t[i + 1].substring(0, 1))) {
+                refs.add(courseKey(t[i] + t[i + 1]));
+                i += 2;
+            } else {
+                refs.add(courseKey(t[i]));
+                i++;
+            }
+        }
+        return refs;
+    }
+
+    private static int indexOf(String[] t, String word, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (t[i].equals(word)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String join(String[] t, int from, int to) {
+        return String.join(" ", Arrays.asList(t).subList(from, to));
+    }
+
+    private static boolean hasDigit(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isDigit(s.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDigits(String s) {
+        if (s.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
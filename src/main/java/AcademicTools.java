@@ -0,0 +1,357 @@
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Function tools that answer structured questions straight from the local
+ * {@link AcademicDatabase}, {@link PrerequisiteGraph} and
+ * {@link ScheduleAnalyzer}: course details, sections with open seats,
+ * prerequisite checks, a student's schedule, schedule conflicts, degree
+ * audits and compound course queries through {@link AcademicQueryEngine}.
+ * Exact lookups like these cost a few microseconds and a short JSON answer
+ * instead of a file_search retrieval over the whole database text.
+ *
+ * The student tools take no student argument. A registry is created for one
+ * run and bound to the student the sender's verified address belongs to, so
+ * the model cannot ask for anyone else's records by ID or by name.
+ */
+public class AcademicTools {
+
+    private static final int QUERY_LIMIT = 50;
+
+    private final Supplier<AcademicCatalog> catalogs;
+    private final DegreeAuditEngine audits;
+
+    public AcademicTools(AcademicDatabase database) {
+        AcademicCatalog catalog = AcademicCatalog.of(database);
+        this.catalogs = () -> catalog;
+        this.audits = new DegreeAuditEngine(catalogs);
+    }
+
+    /**
+     * @param catalogs Supplies the current catalog; each tool call reads from
+     * the one catalog it gets, so a reload mid-call cannot mix data
+     */
+    public AcademicTools(Supplier<AcademicCatalog> catalogs) {
+        this.catalogs = catalogs;
+        this.audits = new DegreeAuditEngine(catalogs);
+    }
+
+    /**
+     * @return A registry whose student tools answer that student records are
+     * not available
+     */
+    public FunctionToolRegistry createRegistry() {
+        return createRegistry(-1);
+    }
+
+    /**
+     * @param studentId The sender's student ID from {@link StudentDirectory},
+     * or -1 if the sender is not in the directory
+     * @return A registry declaring lookup_course, list_sections, check_prereqs,
+     * student_schedule, check_conflicts, degree_audit and query_courses, with
+     * the student tools bound to that student
+     */
+    public FunctionToolRegistry createRegistry(int studentId) {
+        return new FunctionToolRegistry()
+                .register("lookup_course",
+                        "Look up an ACU course by its ID (e.g. CS 120): title, department, credit hours and direct requisites.",
+                        schema(new JSONObject().put("course_id", string("Course ID such as CS120 or CHEM 133")), "course_id"),
+                        this::lookupCourse)
+                .register("list_sections",
+                        "List the scheduled sections of a course with term, days, dates, room and open seats.",
+                        schema(new JSONObject()
+                                .put("course_id", string("Course ID such as CS120"))
+                                .put("term", string("Optional term filter, e.g. Spring 2025"))
+                                .put("only_open", new JSONObject()
+                                        .put("type", "boolean")
+                                        .put("description", "Only sections that still have seats")), "course_id"),
+                        this::listSections)
+                .register("check_prereqs",
+                        "Explain what must be completed before a course. When completed courses are given, also say whether the course can be taken now.",
+                        schema(new JSONObject()
+                                .put("course_id", string("Course ID such as CS332"))
+                                .put("completed_courses", new JSONObject()
+                                        .put("type", "array")
+                                        .put("items", new JSONObject().put("type", "string"))
+                                        .put("description", "Course IDs the student has already completed")), "course_id"),
+                        this::checkPrereqs)
+                .register("student_schedule",
+                        "Show the declared majors and enrolled sections of the student who sent the email. Other students' records are not available.",
+                        schema(new JSONObject()),
+                        arguments -> studentSchedule(studentId))
+                .register("check_conflicts",
+                        "Check whether a section (CRN) clashes with the sending student's current sections: same term, overlapping dates and a shared meeting day. Class times are not recorded.",
+                        schema(new JSONObject().put("crn", new JSONObject().put("type", "integer")), "crn"),
+                        arguments -> checkConflicts(studentId, arguments))
+                .register("degree_audit",
+                        "Audit the sending student's progress toward each declared major: completed and in-progress courses, credit hours, remaining required courses and which of those can be taken next term.",
+                        schema(new JSONObject()),
+                        arguments -> degreeAudit(studentId))
+                .register("query_courses",
+                        "Find courses matching several filters at once, e.g. 3-hour COSAE courses with open Fall 2025 sections. All filters are optional and combined with AND; term or only_open also lists the matching sections.",
+                        schema(new JSONObject()
+                                .put("college", string("College ID such as COSAE"))
+                                .put("department", string("Course subject such as CS or CHEM"))
+                                .put("min_hours", new JSONObject().put("type", "integer"))
+                                .put("max_hours", new JSONObject().put("type", "integer"))
+                                .put("term", string("Only courses with a section in this term, e.g. Fall 2025"))
+                                .put("only_open", new JSONObject()
+                                        .put("type", "boolean")
+                                        .put("description", "Only courses with a section that still has seats"))
+                                .put("major", string("Only courses listed for this major ID, e.g. CS"))
+                                .put("limit", new JSONObject().put("type", "integer"))),
+                        this::queryCourses);
+    }
+
+    String lookupCourse(JSONObject arguments) {
+        AcademicCatalog catalog = catalogs.get();
+        AcademicDatabase database = catalog.database();
+        PrerequisiteGraph graph = catalog.graph();
+        String courseId = arguments.getString("course_id");
+        AcademicDatabase.Course course = database.getCourse(courseId);
+        if (course == null) {
+            return notFound("course", courseId);
+        }
+        AcademicDatabase.Department department = database.getDepartment(course.departmentId());
+        return new JSONObject()
+                .put("id", course.id())
+                .put("title", course.title())
+                .put("department", department != null ? department.name() : course.departmentId())
+                .put("number", course.number())
+                .put("credit_hours", course.hours())
+                .put("required", graph.getRequired(course.id()))
+                .put("one_of", graph.getOneOf(course.id()))
+                .put("corequisites", graph.getCorequisites(course.id()))
+                .put("section_count", database.getSectionsForCourse(course.id()).size())
+                .toString();
+    }
+
+    String listSections(JSONObject arguments) {
+        AcademicCatalog catalog = catalogs.get();
+        AcademicDatabase database = catalog.database();
+        String courseId = arguments.getString("course_id");
+        String term = arguments.optString("term", "");
+        boolean onlyOpen = arguments.optBoolean("only_open", false);
+        List<AcademicDatabase.Section> sections = database.getSectionsForCourse(courseId);
+        if (sections.isEmpty() && database.getCourse(courseId) == null) {
+            return notFound("course", courseId);
+        }
+        JSONArray result = new JSONArray();
+        for (AcademicDatabase.Section section : sections) {
+            if (!term.isBlank() && !section.term().equalsIgnoreCase(term.strip())) {
+                continue;
+            }
+            if (onlyOpen && catalog.schedule().getOpenSeats(section.crn()) <= 0) {
+                continue;
+            }
+            result.put(sectionJson(catalog, section));
+        }
+        return new JSONObject().put("course_id", AcademicTableReader.courseKey(courseId)).put("sections", result).toString();
+    }
+
+    String checkPrereqs(JSONObject arguments) {
+        AcademicCatalog catalog = catalogs.get();
+        AcademicDatabase database = catalog.database();
+        PrerequisiteGraph graph = catalog.graph();
+        String courseId = arguments.getString("course_id");
+        if (!graph.contains(courseId) && database.getCourse(courseId) == null) {
+            return notFound("course", courseId);
+        }
+        JSONObject result = new JSONObject()
+                .put("course_id", AcademicTableReader.courseKey(courseId))
+                .put("required", graph.getRequired(courseId))
+                .put("one_of", graph.getOneOf(courseId))
+                .put("corequisites", graph.getCorequisites(courseId))
+                .put("all_required_before", graph.getRequiredBefore(courseId))
+                .put("unlocks", graph.getUnlocks(courseId));
+        JSONArray completed = arguments.optJSONArray("completed_courses");
+        if (completed != null) {
+            List<String> done = new ArrayList<>(completed.length());
+            for (int i = 0; i < completed.length(); i++) {
+                done.add(completed.getString(i));
+            }
+            PrerequisiteGraph.Eligibility eligibility = graph.check(courseId, done);
+            result.put("eligible", eligibility.isEligible())
+                    .put("missing_required", eligibility.missingRequired())
+                    .put("missing_one_of", eligibility.missingOneOf())
+                    .put("take_alongside", eligibility.corequisites());
+        }
+        return result.toString();
+    }
+
+    String studentSchedule(int studentId) {
+        AcademicCatalog catalog = catalogs.get();
+        AcademicDatabase database = catalog.database();
+        AcademicDatabase.Student student = findStudent(database, studentId);
+        if (student == null) {
+            return studentNotFound(studentId);
+        }
+        JSONArray sections = new JSONArray();
+        for (AcademicDatabase.Enrollment enrollment : database.getEnrollmentsForStudent(student.id())) {
+            AcademicDatabase.Section section = database.getSection(enrollment.crn());
+            JSONObject entry = section != null ? sectionJson(catalog, section) : new JSONObject().put("crn", enrollment.crn());
+            if (section != null) {
+                AcademicDatabase.Course course = database.getCourse(section.courseId());
+                entry.put("course_id", section.courseId());
+                if (course != null) {
+                    entry.put("title", course.title()).put("credit_hours", course.hours());
+                }
+            }
+            entry.put("grade", enrollment.grade() != null ? enrollment.grade() : "in progress");
+            sections.put(entry);
+        }
+        return new JSONObject()
+                .put("student_id", student.id())
+                .put("name", student.fullName())
+                .put("majors", database.getMajorsForStudent(student.id()))
+                .put("sections", sections)
+                .put("conflicts", conflictsJson(catalog.schedule().getScheduleConflicts(student.id())))
+                .toString();
+    }
+
+    String checkConflicts(int studentId, JSONObject arguments) {
+        AcademicCatalog catalog = catalogs.get();
+        int crn = arguments.getInt("crn");
+        AcademicDatabase.Section section = catalog.database().getSection(crn);
+        if (section == null) {
+            return notFound("section", String.valueOf(crn));
+        }
+        AcademicDatabase.Student student = findStudent(catalog.database(), studentId);
+        if (student == null) {
+            return studentNotFound(studentId);
+        }
+        List<ScheduleAnalyzer.Conflict> conflicts = catalog.schedule().getConflictsForStudent(student.id(), crn);
+        return sectionJson(catalog, section)
+                .put("course_id", section.courseId())
+                .put("student_id", student.id())
+                .put("conflicts", conflictsJson(conflicts))
+                .put("fits_schedule", conflicts.isEmpty())
+                .toString();
+    }
+
+    String degreeAudit(int studentId) {
+        AcademicDatabase.Student student = findStudent(catalogs.get().database(), studentId);
+        if (student == null) {
+            return studentNotFound(studentId);
+        }
+        DegreeAuditEngine.Audit audit = audits.audit(student.id());
+        if (audit == null) {
+            return notFound("student", String.valueOf(student.id()));
+        }
+        JSONArray majors = new JSONArray();
+        for (DegreeAuditEngine.MajorProgress major : audit.majors()) {
+            majors.put(new JSONObject()
+                    .put("major_id", major.majorId())
+                    .put("title", major.title())
+                    .put("degree_hours", major.totalHours())
+                    .put("completed", major.completed())
+                    .put("in_progress", major.inProgress())
+                    .put("remaining", major.remaining())
+                    .put("remaining_hours", major.remainingHours())
+                    .put("eligible_next_term", major.eligibleNext()));
+        }
+        return new JSONObject()
+                .put("student_id", student.id())
+                .put("name", student.fullName())
+                .put("as_of", audit.asOf().toString())
+                .put("completed", audit.completed())
+                .put("in_progress", audit.inProgress())
+                .put("completed_hours", audit.completedHours())
+                .put("in_progress_hours", audit.inProgressHours())
+                .put("majors", majors)
+                .toString();
+    }
+
+    String queryCourses(JSONObject arguments) {
+        AcademicCatalog catalog = catalogs.get();
+        AcademicQueryEngine.CourseQuery query = new AcademicQueryEngine.CourseQuery(
+                arguments.optString("college", null),
+                arguments.optString("department", null),
+                arguments.has("min_hours") ? arguments.getInt("min_hours") : null,
+                arguments.has("max_hours") ? arguments.getInt("max_hours") : null,
+                arguments.optString("term", null),
+                arguments.optBoolean("only_open", false),
+                arguments.optString("major", null));
+        List<AcademicQueryEngine.CourseMatch> matches = catalog.queries().findCourses(query);
+        int limit = Math.max(1, arguments.optInt("limit", QUERY_LIMIT));
+        JSONArray courses = new JSONArray();
+        for (AcademicQueryEngine.CourseMatch match : matches.subList(0, Math.min(limit, matches.size()))) {
+            JSONObject course = new JSONObject()
+                    .put("id", match.course().id())
+                    .put("title", match.course().title())
+                    .put("department", match.course().departmentId())
+                    .put("credit_hours", match.course().hours());
+            if (!match.sections().isEmpty()) {
+                JSONArray sections = new JSONArray();
+                for (AcademicDatabase.Section section : match.sections()) {
+                    sections.put(sectionJson(catalog, section));
+                }
+                course.put("sections", sections);
+            }
+            courses.put(course);
+        }
+        return new JSONObject()
+                .put("match_count", matches.size())
+                .put("courses", courses)
+                .toString();
+    }
+
+    private static JSONArray conflictsJson(List<ScheduleAnalyzer.Conflict> conflicts) {
+        JSONArray result = new JSONArray();
+        for (ScheduleAnalyzer.Conflict conflict : conflicts) {
+            result.put(new JSONObject()
+                    .put("crn", conflict.section().crn())
+                    .put("conflicts_with_crn", conflict.other().crn())
+                    .put("conflicts_with_course", conflict.other().courseId())
+                    .put("shared_days", conflict.sharedDays())
+                    .put("from", conflict.from().toString())
+                    .put("to", conflict.to().toString()));
+        }
+        return result;
+    }
+
+    private static AcademicDatabase.Student findStudent(AcademicDatabase database, int studentId) {
+        return studentId < 0 ? null : database.getStudent(studentId);
+    }
+
+    private static String studentNotFound(int studentId) {
+        if (studentId < 0) {
+            return new JSONObject().put("error", "Student records are not available: the sender's address "
+                    + "is not in the student directory").toString();
+        }
+        return notFound("student", String.valueOf(studentId));
+    }
+
+    private static JSONObject sectionJson(AcademicCatalog catalog, AcademicDatabase.Section section) {
+        return new JSONObject()
+                .put("crn", section.crn())
+                .put("term", section.term())
+                .put("days", section.days())
+                .put("start_date", section.startDate().toString())
+                .put("end_date", section.endDate().toString())
+                .put("room", section.room())
+                .put("capacity", section.capacity())
+                .put("enrolled", catalog.schedule().getEnrolled(section.crn()))
+                .put("open_seats", catalog.schedule().getOpenSeats(section.crn()));
+    }
+
+    private static JSONObject schema(JSONObject properties, String... required) {
+        return new JSONObject()
+                .put("type", "object")
+                .put("properties", properties)
+                .put("required", new JSONArray(required));
+    }
+
+    private static JSONObject string(String description) {
+        return new JSONObject().put("type", "string").put("description", description);
+    }
+
+    private static String notFound(String kind, String id) {
+        return new JSONObject().put("error", "No " + kind + " found for \"" + id + "\"").toString();
+    }
+}
@@ -0,0 +1,85 @@
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * Remembers which assistant, vector store and knowledge file were created for
+ * a given model and set of instructions, so they can be reused across emails
+ * and restarts instead of being rebuilt for every message.
+ *
+ * Entries are keyed by a SHA-256 hash of the model and instructions; changing
+ * either produces a new key and therefore a fresh assistant. The registry is
+ * a plain properties file rewritten on every change.
+ */
+public class AssistantRegistry {
+
+    /**
+     * The remote resources behind one registered assistant.
+     */
+    public record Entry(String assistantId, String vectorStoreId, String fileId) {
+
+    }
+
+    private final File registryFile;
+    private final Properties properties;
+
+    public AssistantRegistry(File registryFile) {
+        this.registryFile = registryFile;
+        this.properties = PropertiesFiles.load(registryFile);
+    }
+
+    public static String keyFor(String model, String instructions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(instructions.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return The registered resources for the key, or null if none are known
+     */
+    public synchronized Entry get(String key) {
+        String assistantId = properties.getProperty(key + ".assistant");
+        if (assistantId == null) {
+            return null;
+        }
+        return new Entry(assistantId,
+                properties.getProperty(key + ".vector_store"),
+                properties.getProperty(key + ".file"));
+    }
+
+    public synchronized void put(String key, Entry entry) {
+        properties.setProperty(key + ".assistant", entry.assistantId());
+        setOrRemove(key + ".vector_store", entry.vectorStoreId());
+        setOrRemove(key + ".file", entry.fileId());
+        save();
+    }
+
+    public synchronized void remove(String key) {
+        properties.remove(key + ".assistant");
+        properties.remove(key + ".vector_store");
+        properties.remove(key + ".file");
+        save();
+    }
+
+    private void setOrRemove(String property, String value) {
+        if (value == null) {
+            properties.remove(property);
+        } else {
+            properties.setProperty(property, value);
+        }
+    }
+
+    private void save() {
+        PropertiesFiles.save(properties, registryFile, "OpenAI assistants reused across runs");
+    }
+}
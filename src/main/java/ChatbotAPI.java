@@ -1,14 +1,65 @@
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public class ChatbotAPI {
 
+    private static final String MODEL = "gpt-4o";
+
+    private static final String INSTRUCTIONS = "You are a email based AI Academic Advisor chatbot for Abilene Christian University only ever adress yourself as such. "
+            + "Provide information about the student's academic journey, courses, and other academic-related topics.\n\n"
+            + "The acu_database.txt file contains important tables with academic data structured as follows:\n"
+            + "- prereq: Lists course prerequisites\n"
+            + "- section_course: Maps course IDs to section IDs\n"
+            + "- college: Lists colleges and their names\n"
+            + "- student: Contains student IDs with first and last names\n"
+            + "- department: Lists departments and their associated colleges\n"
+            + "- course: Provides detailed course information including department, title, number, and credit hours\n"
+            + "- major: Lists majors with department IDs and requirements\n"
+            + "- teachers: Lists faculty members with their departments\n"
+            + "- section: Contains details about course sections including room, term dates, and schedules\n"
+            + "- student_section: Records student enrollments in course sections\n"
+            + "- major_class: Maps major requirements to classes\n"
+            + "- and_prereq/or_prereq/coreq: Different types of course prerequisites\n"
+            + "- student_major: Records student's declared major\n"
+            + "- concentration: Lists available concentrations within majors\n\n"
+            + "Use this information to provide accurate academic advising to students including degree requirements, course selection, and academic planning."
+            + "\n\nWhen searching the ACU database, look for table headers to identify the relevant table structure. "
+            + "The database file contains multiple tables with headers like 'Table: [tableName]'. "
+            + "Extract information from the appropriate tables based on the student's question. "
+            + "For questions about prerequisites, check both the 'prereq', 'and_prereq', 'or_prereq', and 'coreq' tables. "
+            + "For course information, reference the 'course' table. "
+            + "For student schedules, combine data from 'student', 'section', and 'student_section' tables.\nPlease return your response in a format suitable for professional/educational emails. In the signature for the email say 'Best regards, AI ACU Academic Advisor";
+
     private static OpenAiAssistantEngine assistant;
     private static String APIKEY;
     private static File ACU_DATABASE_FILE;
+    private static AssistantRegistry registry;
+    private static FileUploadCache uploadCache;
+
+    // Local copy of acu_database.txt, reloaded in the background when it changes
+    private static AcademicDataStore academicData;
+
+    // Local lookups the model can call instead of searching the database text,
+    // bound to the sending student for each run
+    private static AcademicTools academicTools;
+
+    // Pre-rendered records of the sending student, attached to each run
+    private static StudentContextCache studentContext;
+
+    // Ties a verified sender address to a student ID for the tools and the record
+    private static StudentDirectory studentDirectory;
+
+    // Local retrieval mode replaces the hosted vector store with a BM25 index
+    private static boolean localRetrieval;
+    private static int retrievalTopK;
+
+    // Assistant confirmed to exist during this process, shared by every email
+    private static String activeAssistantId;
 
     public ChatbotAPI() {
         Config config = Config.getInstance();
@@ -16,64 +67,178 @@ public class ChatbotAPI {
         String baseDir = System.getProperty("user.dir");
         ACU_DATABASE_FILE = new File(Paths.get(baseDir, "resources", "acu_database.txt").toUri());
 
-        assistant = new OpenAiAssistantEngine(APIKEY);
+        if (assistant == null) {
+            assistant = new OpenAiAssistantEngine(APIKEY);
+        }
+        uploadCache = new FileUploadCache(new File(config.getFileUploadCacheFile()));
+        assistant.setFileUploadCache(uploadCache);
+        registry = new AssistantRegistry(new File(config.getAssistantRegistryFile()));
+        localRetrieval = "local".equalsIgnoreCase(config.getRetrievalMode());
+        retrievalTopK = config.getRetrievalTopK();
+        if (config.getUseFunctionTools() || localRetrieval || config.getAttachStudentContext()) {
+            loadAcademicData(config);
+        }
+    }
+
+    /**
+     * Loads the database once per process, from its compiled snapshot when
+     * that is up to date, and optionally watches the file so registrar
+     * updates are picked up without a restart.
+     */
+    private static synchronized void loadAcademicData(Config config) {
+        if (academicData != null) {
+            return;
+        }
+        if (!java.nio.file.Files.exists(ACU_DATABASE_FILE.toPath())) {
+            System.err.println("ACU database file not found at: " + ACU_DATABASE_FILE);
+            return;
+        }
+        try {
+            academicData = new AcademicDataStore(ACU_DATABASE_FILE.toPath(), Paths.get(config.getAcademicSnapshotFile()));
+            reportWarnings(academicData.get());
+            academicData.addListener(ChatbotAPI::onAcademicDataReloaded);
+            if (config.getWatchAcademicData()) {
+                academicData.startWatching();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to load ACU database: " + e.getMessage());
+            return;
+        }
+        if (config.getUseFunctionTools()) {
+            academicTools = new AcademicTools(academicData::get);
+        }
+        if (config.getAttachStudentContext()) {
+            studentContext = new StudentContextCache(academicData::get);
+        }
+        if (academicTools != null || studentContext != null) {
+            studentDirectory = new StudentDirectory(new File(config.getStudentDirectoryFile()));
+        }
+    }
+
+    private static void reportWarnings(AcademicCatalog catalog) {
+        for (String warning : catalog.warnings()) {
+            System.err.println("ACU database: " + warning);
+        }
+    }
+
+    /**
+     * Local tools and retrieval see the new catalog straight away. In file
+     * search mode the assistant is re-validated on the next email, which
+     * uploads the changed file and rebuilds its vector store.
+     */
+    private static void onAcademicDataReloaded(AcademicCatalog catalog) {
+        System.err.println("Reloaded ACU database (version " + catalog.version() + ")");
+        reportWarnings(catalog);
+        if (!localRetrieval) {
+            synchronized (ChatbotAPI.class) {
+                activeAssistantId = null;
+            }
+        }
     }
 
     public String run(String message, List<Map<String, String>> conversation, String userName) {
+        return run(message, conversation, userName, null);
+    }
 
-        String assistantId = setupAssistant(userName);
+    /**
+     * @param senderAddress The sender's email address, used to find their
+     * student record in the student directory; may be null
+     */
+    public String run(String message, List<Map<String, String>> conversation, String userName, String senderAddress) {
+
+        String assistantId = getOrCreateAssistant();
         if (assistantId == null) {
-            System.out.println("Failed to set up assistant");
+            System.err.println("Failed to set up assistant");
             return null;
         }
 
-        String response = processUserMessage(assistantId, conversation, message, userName);
-        System.out.println(response);
-
-        assistant.deleteResource("assistants", assistantId);
+        String response = processUserMessage(assistantId, conversation, message, userName, senderAddress);
+        System.err.println(response);
 
         return response;
     }
 
-    public String setupAssistant(String userName) {
+    /**
+     * Returns the advisor assistant, reusing the one recorded in the registry
+     * for the current model and instructions when it still exists and only
+     * creating a new assistant and vector store otherwise.
+     */
+    public static synchronized String getOrCreateAssistant() {
+        if (activeAssistantId != null) {
+            return activeAssistantId;
+        }
 
-        String instructionsBase = "You are a email based AI Academic Advisor chatbot for Abilene Christian University only ever adress yourself as such. ";
+        String key = registryKey();
+        AssistantRegistry.Entry entry = registry.get(key);
+        if (entry != null) {
+            if (assistant.retrieveAssistant(entry.assistantId()) != null && isDatabaseCurrent(entry)) {
+                activeAssistantId = entry.assistantId();
+                return activeAssistantId;
+            }
+            retire(entry);
+            registry.remove(key);
+        }
 
-        if (userName != null && !userName.isEmpty()) {
-            instructionsBase += "Address the student as " + userName + " for all reponses. ";
-        } else {
-            instructionsBase += "Address the student by their first and last name. ";
-        }
-
-        String instructions = instructionsBase + "Provide information about the student's academic journey, courses, and other academic-related topics.\n\n"
-                + "The acu_database.txt file contains important tables with academic data structured as follows:\n"
-                + "- prereq: Lists course prerequisites\n"
-                + "- section_course: Maps course IDs to section IDs\n"
-                + "- college: Lists colleges and their names\n"
-                + "- student: Contains student IDs with first and last names\n"
-                + "- department: Lists departments and their associated colleges\n"
-                + "- course: Provides detailed course information including department, title, number, and credit hours\n"
-                + "- major: Lists majors with department IDs and requirements\n"
-                + "- teachers: Lists faculty members with their departments\n"
-                + "- section: Contains details about course sections including room, term dates, and schedules\n"
-                + "- student_section: Records student enrollments in course sections\n"
-                + "- major_class: Maps major requirements to classes\n"
-                + "- and_prereq/or_prereq/coreq: Different types of course prerequisites\n"
-                + "- student_major: Records student's declared major\n"
-                + "- concentration: Lists available concentrations within majors\n\n"
-                + "Use this information to provide accurate academic advising to students including degree requirements, course selection, and academic planning."
-                + "\n\nWhen searching the ACU database, look for table headers to identify the relevant table structure. "
-                + "The database file contains multiple tables with headers like 'Table: [tableName]'. "
-                + "Extract information from the appropriate tables based on the student's question. "
-                + "For questions about prerequisites, check both the 'prereq', 'and_prereq', 'or_prereq', and 'coreq' tables. "
-                + "For course information, reference the 'course' table. "
-                + "For student schedules, combine data from 'student', 'section', and 'student_section' tables.\nPlease return your response in a format suitable for professional/educational emails. In the signature for the email say 'Best regards, AI ACU Academic Advisor";
+        AssistantRegistry.Entry created = setupAssistant();
+        if (created == null) {
+            return null;
+        }
+        registry.put(key, created);
+        activeAssistantId = created.assistantId();
+        return activeAssistantId;
+    }
+
+    /**
+     * Checks whether the vector store behind a registered assistant was built
+     * from the current database file, by looking up the file's content hash
+     * in the upload cache. Nothing is uploaded here; a changed file is
+     * uploaded once, when the assistant is rebuilt.
+     */
+    private static boolean isDatabaseCurrent(AssistantRegistry.Entry entry) {
+        if (entry.fileId() == null || !java.nio.file.Files.exists(ACU_DATABASE_FILE.toPath())) {
+            return true;
+        }
+        try {
+            return entry.fileId().equals(uploadCache.get(FileUploadCache.keyFor(ACU_DATABASE_FILE, "assistants")));
+        } catch (IOException e) {
+            System.err.println("Failed to hash ACU database file: " + e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Deletes a registered assistant along with its vector store and the
+     * uploaded database file, which is also dropped from the upload cache.
+     */
+    private static void retire(AssistantRegistry.Entry entry) {
+        assistant.deleteResource("assistants", entry.assistantId());
+        if (entry.vectorStoreId() != null) {
+            assistant.deleteResource("vector_stores", entry.vectorStoreId());
+        }
+        if (entry.fileId() != null) {
+            assistant.deleteResource("files", entry.fileId());
+            uploadCache.removeFileId(entry.fileId());
+        }
+    }
+
+    /**
+     * Local retrieval mode needs an assistant without file search, so it is
+     * registered under its own key.
+     */
+    private static String registryKey() {
+        return AssistantRegistry.keyFor(localRetrieval ? MODEL + ":local" : MODEL, INSTRUCTIONS);
+    }
+
+    public static AssistantRegistry.Entry setupAssistant() {
+        if (localRetrieval) {
+            return setupLocalAssistant();
+        }
 
         String assistantId = assistant.createAssistant(
-                "gpt-4o",
+                MODEL,
                 "Abilene Christian University Academic Advisor",
                 null,
-                instructions,
+                INSTRUCTIONS,
                 null,
                 List.of("file_search"),
                 null,
@@ -83,16 +248,22 @@ public class ChatbotAPI {
         );
 
         if (assistantId == null) {
-            System.out.println("Failed to create assistant");
+            System.err.println("Failed to create assistant");
             return null;
         }
 
         if (!java.nio.file.Files.exists(ACU_DATABASE_FILE.toPath())) {
-            System.out.println("ACU database file not found at: " + ACU_DATABASE_FILE);
+            System.err.println("ACU database file not found at: " + ACU_DATABASE_FILE);
+            assistant.deleteResource("assistants", assistantId);
             return null;
         }
 
         String acuDatabaseFileID = assistant.uploadFile(ACU_DATABASE_FILE, "assistants");
+        if (acuDatabaseFileID == null) {
+            System.err.println("Failed to upload ACU database file");
+            assistant.deleteResource("assistants", assistantId);
+            return null;
+        }
 
         Map<String, String> fileMetadata = Map.of(
                 acuDatabaseFileID, "ACU database with tables for courses, prerequisites, sections, majors, departments, and student information. Tables are formatted with headers and data rows separated by whitespace."
@@ -107,7 +278,8 @@ public class ChatbotAPI {
         );
 
         if (vectorStoreId == null) {
-            System.out.println("Failed to create vector store");
+            System.err.println("Failed to create vector store");
+            assistant.deleteResource("assistants", assistantId);
             return null;
         }
 
@@ -141,15 +313,102 @@ public class ChatbotAPI {
         );
 
         if (!updateSuccess) {
-            System.out.println("Failed to update assistant with vector store");
+            System.err.println("Failed to update assistant with vector store");
+            assistant.deleteResource("assistants", assistantId);
+            return null;
+        }
+
+        System.err.println("Assistant setup successfully with ID: " + assistantId);
+        return new AssistantRegistry.Entry(assistantId, vectorStoreId, acuDatabaseFileID);
+    }
+
+    /**
+     * Creates an assistant with no hosted tools. The database rows it needs
+     * arrive with each run, so no file upload or vector store is involved.
+     */
+    private static AssistantRegistry.Entry setupLocalAssistant() {
+        String assistantId = assistant.createAssistant(
+                MODEL,
+                "Abilene Christian University Academic Advisor",
+                null,
+                INSTRUCTIONS,
+                null,
+                null,
+                null,
+                0.1,
+                0.1,
+                null
+        );
+
+        if (assistantId == null) {
+            System.err.println("Failed to create assistant");
             return null;
         }
 
-        System.out.println("Assistant setup successfully with ID: " + assistantId);
-        return assistantId;
+        System.err.println("Assistant setup successfully with ID: " + assistantId);
+        return new AssistantRegistry.Entry(assistantId, null, null);
+    }
+
+    /**
+     * Per-run instructions that personalise the shared assistant for one
+     * student without baking their name into it. They carry the student's own
+     * record when the sender's address is in the student directory, and in
+     * local retrieval mode the database rows that best match the message.
+     */
+    private static String studentInstructions(String userName, int studentId, String message) {
+        String instructions;
+        if (userName != null && !userName.isEmpty()) {
+            instructions = "Address the student as " + userName + " for all reponses.";
+        } else {
+            instructions = "Address the student by their first and last name.";
+        }
+        if (academicTools != null) {
+            instructions += " For exact course, section, prerequisite, schedule and degree progress questions call the "
+                    + "lookup_course, list_sections, check_prereqs, student_schedule, check_conflicts and "
+                    + "degree_audit functions, and query_courses to find courses matching several filters; "
+                    + (localRetrieval ? "use the database rows below" : "use file search")
+                    + " only for information they do not cover.";
+        }
+        if (studentContext != null && studentId >= 0) {
+            String record = studentContext.forStudent(studentId);
+            if (record != null) {
+                instructions += "\n\nThis record is current and comes from the university database; rely on it "
+                        + "instead of searching for the student:\n" + record;
+            }
+        }
+        if (localRetrieval && academicData != null) {
+            List<RowSearchIndex.Hit> hits = academicData.get().searchIndex().search(message, retrievalTopK);
+            if (!hits.isEmpty()) {
+                instructions += "\n\nRows from acu_database.txt that match the student's message:\n"
+                        + RowSearchIndex.format(hits);
+            }
+        }
+        return instructions;
+    }
+
+    /**
+     * Tools for one run: file search (unless retrieval is local) plus the
+     * local function tools when they are loaded, or null to keep the
+     * assistant's own tools.
+     */
+    private static List<org.json.JSONObject> runTools(FunctionToolRegistry functions) {
+        if (functions == null) {
+            return null;
+        }
+        List<org.json.JSONObject> tools = new ArrayList<>();
+        if (!localRetrieval) {
+            tools.add(new org.json.JSONObject().put("type", "file_search"));
+        }
+        tools.addAll(functions.getDefinitions());
+        return tools;
     }
 
     public String processUserMessage(String assistantId, List<Map<String, String>> conversation, String userMessage, String userName) {
+        return processUserMessage(assistantId, conversation, userMessage, userName, null);
+    }
+
+    public String processUserMessage(String assistantId, List<Map<String, String>> conversation, String userMessage,
+            String userName, String senderAddress) {
         String threadId;
         if (conversation != null && !conversation.isEmpty()) {
             List<Map<String, String>> formattedMessages = conversation.stream()
@@ -178,31 +437,24 @@ public class ChatbotAPI {
             return "Failed to add message to thread.";
         }
 
-        String runId = assistant.createRun(
-                threadId,
-                assistantId,
-                null, null, null, null, null,
-                null, null, null, null, null, null, null,
-                null, null, null, null
-        );
-
-        if (runId == null) {
-            assistant.deleteResource("threads", threadId);
-            return "Failed to create run for processing message.";
-        }
-
-        boolean completed = assistant.waitForRunCompletion(threadId, runId, 60, 1000);
-        if (!completed) {
+        int studentId = studentDirectory == null ? -1 : studentDirectory.studentIdFor(senderAddress);
+        FunctionToolRegistry functions = academicTools == null ? null : academicTools.createRegistry(studentId);
+        StreamedRun run = assistant.createRunStream(threadId, assistantId,
+                studentInstructions(userName, studentId, userMessage), null, runTools(functions), functions, null, 60);
+        if (run == null || !run.isCompleted()) {
             assistant.deleteResource("threads", threadId);
             return "The assistant encountered an issue while processing the message.";
         }
 
-        List<String> retrievedMessages = assistant.listMessages(threadId, runId);
         String response = "No response received from the assistant.";
-
-        if (retrievedMessages != null && !retrievedMessages.isEmpty()) {
-            response = retrievedMessages.get(0);
-            response = cleanupResponse(response);
+        String streamedText = run.getText();
+        if (streamedText != null && !streamedText.isEmpty()) {
+            response = cleanupResponse(streamedText);
+        } else {
+            List<String> retrievedMessages = assistant.listMessages(threadId, run.getRunId());
+            if (retrievedMessages != null && !retrievedMessages.isEmpty()) {
+                response = cleanupResponse(retrievedMessages.get(0));
+            }
         }
 
         assistant.deleteResource("threads", threadId);
@@ -291,6 +543,12 @@ public class ChatbotAPI {
     }
 
     public boolean cleanupAssistant(String assistantId) {
+        synchronized (ChatbotAPI.class) {
+            if (assistantId.equals(activeAssistantId)) {
+                activeAssistantId = null;
+                registry.remove(registryKey());
+            }
+        }
         return assistant.deleteResource("assistants", assistantId);
     }
 }
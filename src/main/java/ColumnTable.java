@@ -0,0 +1,323 @@
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only table stored column by column in primitive {@code int[]}
+ * arrays. Text columns are dictionary encoded, so every scan and join
+ * compares plain ints.
+ *
+ * A scan applies its predicates one after another to a selection vector of
+ * row numbers. Each predicate is one tight loop over one column that only
+ * visits the rows still selected. Two tables can be hash joined on any pair
+ * of key columns that use the same encoding.
+ */
+public class ColumnTable {
+
+    public enum Op {
+        EQ, NE, LT, LE, GT, GE, IN
+    }
+
+    /**
+     * A filter on one column. Text values are given as dictionary codes; see
+     * {@link ColumnTable#eq(String, String)}.
+     */
+    public record Predicate(String column, Op op, int... values) {
+
+    }
+
+    /**
+     * Maps text values to dense codes. Tables that will be joined on a text
+     * column must encode that column with the same dictionary.
+     */
+    public static class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        /**
+         * @return The value's code, or -1 if it never occurs, which no
+         * predicate can match
+         */
+        public int code(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        public String value(int code) {
+            return values.get(code);
+        }
+    }
+
+    public static class Builder {
+
+        private final String name;
+        private final int rows;
+        private final Map<String, int[]> columns = new LinkedHashMap<>();
+        private final Map<String, Dictionary> dictionaries = new HashMap<>();
+
+        public Builder(String name, int rows) {
+            this.name = name;
+            this.rows = rows;
+        }
+
+        public Builder ints(String column, int[] values) {
+            if (values.length != rows) {
+                throw new IllegalArgumentException(name + "." + column + " has " + values.length + " rows, expected " + rows);
+            }
+            columns.put(column, values);
+            return this;
+        }
+
+        public Builder strings(String column, String[] values) {
+            return strings(column, values, new Dictionary());
+        }
+
+        public Builder strings(String column, String[] values, Dictionary dictionary) {
+            int[] codes = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                codes[i] = dictionary.encode(values[i]);
+            }
+            dictionaries.put(column, dictionary);
+            return ints(column, codes);
+        }
+
+        public ColumnTable build() {
+            return new ColumnTable(this);
+        }
+    }
+
+    private final String name;
+    private final int rows;
+    private final Map<String, int[]> columns;
+    private final Map<String, Dictionary> dictionaries;
+
+    private ColumnTable(Builder builder) {
+        this.name = builder.name;
+        this.rows = builder.rows;
+        this.columns = builder.columns;
+        this.dictionaries = builder.dictionaries;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public Set<String> getColumns() {
+        return columns.keySet();
+    }
+
+    /**
+     * @return The raw column; text columns hold dictionary codes
+     */
+    public int[] column(String column) {
+        int[] values = columns.get(column);
+        if (values == null) {
+            throw new IllegalArgumentException("No column " + name + "." + column);
+        }
+        return values;
+    }
+
+    public int getInt(String column, int row) {
+        return column(column)[row];
+    }
+
+    public String getString(String column, int row) {
+        return dictionary(column).value(column(column)[row]);
+    }
+
+    public Dictionary dictionary(String column) {
+        Dictionary dictionary = dictionaries.get(column);
+        if (dictionary == null) {
+            throw new IllegalArgumentException(name + "." + column + " is not a text column");
+        }
+        return dictionary;
+    }
+
+    /**
+     * @return A predicate matching rows whose text column equals the value
+     */
+    public Predicate eq(String column, String value) {
+        return new Predicate(column, Op.EQ, dictionary(column).code(value));
+    }
+
+    /**
+     * @return Every row number, in order
+     */
+    public int[] all() {
+        int[] selection = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            selection[i] = i;
+        }
+        return selection;
+    }
+
+    /**
+     * @return Row numbers, in order, that match every predicate
+     */
+    public int[] scan(List<Predicate> predicates) {
+        return filter(all(), predicates);
+    }
+
+    /**
+     * Narrows a selection vector to the rows matching every predicate.
+     */
+    public int[] filter(int[] selection, List<Predicate> predicates) {
+        int[] current = selection;
+        int count = selection.length;
+        for (Predicate predicate : predicates) {
+            int[] out = current == selection ? new int[count] : current;
+            count = apply(predicate, current, count, out);
+            current = out;
+        }
+        return current.length == count ? current : Arrays.copyOf(current, count);
+    }
+
+    /**
+     * Writes the selected rows that satisfy the predicate to {@code out},
+     * which may be {@code selection} itself.
+     *
+     * @return Number of rows written
+     */
+    private int apply(Predicate predicate, int[] selection, int count, int[] out) {
+        int[] column = column(predicate.column());
+        int[] values = predicate.values();
+        int v = values.length > 0 ? values[0] : 0;
+        int n = 0;
+        switch (predicate.op()) {
+            case EQ -> {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    if (column[row] == v) {
+                        out[n++] = row;
+                    }
+                }
+            }
+            case NE -> {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    if (column[row] != v) {
+                        out[n++] = row;
+                    }
+                }
+            }
+            case LT -> {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    if (column[row] < v) {
+                        out[n++] = row;
+                    }
+                }
+            }
+            case LE -> {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    if (column[row] <= v) {
+                        out[n++] = row;
+                    }
+                }
+            }
+            case GT -> {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    if (column[row] > v) {
+                        out[n++] = row;
+                    }
+                }
+            }
+            case GE -> {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    if (column[row] >= v) {
+                        out[n++] = row;
+                    }
+                }
+            }
+            case IN -> {
+                int[] sorted = values.clone();
+                Arrays.sort(sorted);
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    if (Arrays.binarySearch(sorted, column[row]) >= 0) {
+                        out[n++] = row;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Equi-joins the selected rows of two tables. The smaller side is loaded
+     * into a chained hash table on its key and the other side probes it.
+     *
+     * @return Two arrays of equal length: matching row numbers of the left
+     * table and of the right table, in probe order
+     */
+    public static int[][] hashJoin(ColumnTable left, int[] leftRows, String leftKey,
+            ColumnTable right, int[] rightRows, String rightKey) {
+        Dictionary leftDictionary = left.dictionaries.get(leftKey);
+        if (leftDictionary != right.dictionaries.get(rightKey)) {
+            throw new IllegalArgumentException("Cannot join " + left.name + "." + leftKey + " with "
+                    + right.name + "." + rightKey + ": the columns are encoded differently");
+        }
+        boolean buildLeft = leftRows.length <= rightRows.length;
+        int[] buildRows = buildLeft ? leftRows : rightRows;
+        int[] buildKeys = (buildLeft ? left : right).column(buildLeft ? leftKey : rightKey);
+        int[] probeRows = buildLeft ? rightRows : leftRows;
+        int[] probeKeys = (buildLeft ? right : left).column(buildLeft ? rightKey : leftKey);
+
+        int mask = Integer.highestOneBit(Math.max(1, buildRows.length) * 2 - 1) * 2 - 1;
+        int[] heads = new int[mask + 1];
+        Arrays.fill(heads, -1);
+        int[] next = new int[buildRows.length];
+        for (int i = 0; i < buildRows.length; i++) {
+            int bucket = mix(buildKeys[buildRows[i]]) & mask;
+            next[i] = heads[bucket];
+            heads[bucket] = i;
+        }
+
+        int[] buildOut = new int[Math.max(16, probeRows.length)];
+        int[] probeOut = new int[buildOut.length];
+        int n = 0;
+        for (int probe : probeRows) {
+            int key = probeKeys[probe];
+            for (int i = heads[mix(key) & mask]; i >= 0; i = next[i]) {
+                if (buildKeys[buildRows[i]] == key) {
+                    if (n == buildOut.length) {
+                        buildOut = Arrays.copyOf(buildOut, n * 2);
+                        probeOut = Arrays.copyOf(probeOut, n * 2);
+                    }
+                    buildOut[n] = buildRows[i];
+                    probeOut[n++] = probe;
+                }
+            }
+        }
+        buildOut = Arrays.copyOf(buildOut, n);
+        probeOut = Arrays.copyOf(probeOut, n);
+        return buildLeft ? new int[][]{buildOut, probeOut} : new int[][]{probeOut, buildOut};
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -74,4 +74,92 @@ public class Config {
     public boolean getUseSmtp() {
         return Boolean.parseBoolean(properties.getProperty("email.use.smtp"));
     }
+
+    /**
+     * How often the inbox watcher checks for mail when the IMAP server does
+     * not support IDLE.
+     */
+    public int getEmailWatchPollSeconds() {
+        return Integer.parseInt(properties.getProperty("email.watch.poll.seconds", "30"));
+    }
+
+    /**
+     * Where the INBOX UIDVALIDITY and highest handled UID are kept between
+     * runs.
+     */
+    public String getEmailUidStateFile() {
+        return properties.getProperty("email.uid.state.file", "inbox_uid_state.properties");
+    }
+
+    /**
+     * Whether an email is marked read only once its reply has been sent, so
+     * a failed reply is tried again next cycle. By default it is marked read
+     * even when the reply fails, so it is never answered twice.
+     */
+    public boolean getEmailMarkAfterReply() {
+        return Boolean.parseBoolean(properties.getProperty("email.mark.after.reply", "false"));
+    }
+
+    public String getAssistantRegistryFile() {
+        return properties.getProperty("assistant.registry.file", "assistant_registry.properties");
+    }
+
+    public String getFileUploadCacheFile() {
+        return properties.getProperty("openai.file.cache", "file_upload_cache.properties");
+    }
+
+    /**
+     * Whether runs may call the local academic function tools
+     * (lookup_course, list_sections, ...) in addition to file search.
+     */
+    public boolean getUseFunctionTools() {
+        return Boolean.parseBoolean(properties.getProperty("assistant.function.tools", "true"));
+    }
+
+    /**
+     * How the assistant finds academic data: "file_search" uses a hosted
+     * vector store, "local" injects the best matching database rows from a
+     * local BM25 index into each run.
+     */
+    public String getRetrievalMode() {
+        return properties.getProperty("assistant.retrieval.mode", "file_search");
+    }
+
+    public int getRetrievalTopK() {
+        return Integer.parseInt(properties.getProperty("assistant.retrieval.top.k", "12"));
+    }
+
+    /**
+     * Whether each run carries the sending student's record (majors,
+     * sections, completed courses) rendered from the local tables. Records
+     * are only attached for senders listed in the student directory.
+     */
+    public boolean getAttachStudentContext() {
+        return Boolean.parseBoolean(properties.getProperty("assistant.student.context", "false"));
+    }
+
+    /**
+     * Properties file mapping verified student email addresses to student
+     * IDs. The student tools and the attached student record only ever
+     * answer for the ID the sender's address maps to.
+     */
+    public String getStudentDirectoryFile() {
+        return properties.getProperty("assistant.student.directory", "student_directory.properties");
+    }
+
+    /**
+     * Compiled binary copy of acu_database.txt, rebuilt automatically when
+     * the text file changes.
+     */
+    public String getAcademicSnapshotFile() {
+        return properties.getProperty("academic.snapshot.file", "acu_database.snapshot");
+    }
+
+    /**
+     * Whether a long-running process reloads acu_database.txt when it
+     * changes on disk.
+     */
+    public boolean getWatchAcademicData() {
+        return Boolean.parseBoolean(properties.getProperty("academic.reload.watch", "true"));
+    }
 }
@@ -0,0 +1,185 @@
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense integer IDs for course references. Every distinct course key (see
+ * {@link AcademicTableReader#courseKey}) gets an ID from 0 to
+ * {@code size() - 1} in the order it was first seen, and any spelling of the
+ * reference ("CHEM 133", "chem133", "CHEM133") resolves to the same ID.
+ *
+ * Lookups go through a minimal-space perfect hash built with the CHD
+ * (compress, hash and displace) scheme: each key hashes to a bucket, and each
+ * bucket stores one displacement that moves all of its keys into free slots.
+ * A lookup hashes the reference once, skipping whitespace and folding case as
+ * it goes, reads one displacement and one slot and confirms the match, so it
+ * never allocates.
+ */
+public class CourseKeyIndex {
+
+    /**
+     * Average keys per bucket; larger means a smaller displacement table but a
+     * slower build.
+     */
+    private static final int BUCKET_SIZE = 4;
+    private static final double LOAD_FACTOR = 0.85;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final String[] keys;
+    private final int[] displacements;
+    private final int[] slots;
+
+    /**
+     * @param references Course references in any spelling; duplicates after
+     * normalisation share one ID
+     */
+    public CourseKeyIndex(Collection<String> references) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> distinct = new ArrayList<>();
+        for (String reference : references) {
+            String key = AcademicTableReader.courseKey(reference);
+            if (!key.isEmpty() && ids.putIfAbsent(key, distinct.size()) == null) {
+                distinct.add(key);
+            }
+        }
+        this.keys = distinct.toArray(String[]::new);
+        int n = keys.length;
+        this.displacements = new int[Math.max(1, (n + BUCKET_SIZE - 1) / BUCKET_SIZE)];
+        this.slots = new int[Math.max(1, (int) Math.ceil(n / LOAD_FACTOR))];
+        Arrays.fill(slots, -1);
+
+        long[] hashes = new long[n];
+        List<List<Integer>> buckets = new ArrayList<>(displacements.length);
+        for (int i = 0; i < displacements.length; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int id = 0; id < n; id++) {
+            hashes[id] = hash(keys[id]);
+            buckets.get(bucket(hashes[id])).add(id);
+        }
+        Integer[] order = new Integer[buckets.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Largest buckets first, while the table is still mostly empty
+        Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+
+        int[] placed = new int[BUCKET_SIZE * 8];
+        for (int b : order) {
+            List<Integer> members = buckets.get(b);
+            if (members.isEmpty()) {
+                break;
+            }
+            if (placed.length < members.size()) {
+                placed = new int[members.size()];
+            }
+            for (int d = 0;; d++) {
+                int count = 0;
+                for (int id : members) {
+                    int slot = slot(hashes[id], d);
+                    if (slots[slot] >= 0 || contains(placed, count, slot)) {
+                        break;
+                    }
+                    placed[count++] = slot;
+                }
+                if (count == members.size()) {
+                    for (int i = 0; i < count; i++) {
+                        slots[placed[i]] = members.get(i);
+                    }
+                    displacements[b] = d;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of distinct course keys
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param reference Course reference in any spacing or case
+     * @return The course's ID, or -1 if it was never seen
+     */
+    public int idOf(CharSequence reference) {
+        if (keys.length == 0) {
+            return -1;
+        }
+        long hash = hash(reference);
+        int id = slots[slot(hash, displacements[bucket(hash)])];
+        return id >= 0 && matches(keys[id], reference) ? id : -1;
+    }
+
+    public boolean contains(CharSequence reference) {
+        return idOf(reference) >= 0;
+    }
+
+    /**
+     * @return The canonical key for an ID, e.g. "CHEM133"
+     */
+    public String keyOf(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Hashes the canonical form of a reference without building it: whitespace
+     * is skipped and letters are upper-cased as they are read.
+     */
+    static long hash(CharSequence reference) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                hash = (hash ^ Character.toUpperCase(c)) * 0x100000001B3L;
+            }
+        }
+        return mix(hash);
+    }
+
+    private int bucket(long hash) {
+        return (int) Long.remainderUnsigned(hash >>> 32, displacements.length);
+    }
+
+    private int slot(long hash, int displacement) {
+        return (int) Long.remainderUnsigned(mix(hash + displacement * GOLDEN), slots.length);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static boolean matches(String key, CharSequence reference) {
+        int k = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (k == key.length() || key.charAt(k++) != Character.toUpperCase(c)) {
+                return false;
+            }
+        }
+        return k == key.length();
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
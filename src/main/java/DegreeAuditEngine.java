@@ -0,0 +1,168 @@
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Degree audits built from major_class, student_major, student_section and
+ * course hours: which of a major's courses a student has finished, which are
+ * in progress, which remain and which of those could be taken next term.
+ *
+ * An enrollment counts as completed when it has a passing grade, or when it
+ * has no grade recorded and its section ended before the audit date. An
+ * ungraded enrollment in a section still running is in progress, and is
+ * assumed passed when deciding what can be taken next term.
+ *
+ * Audits are cached per student and dropped as soon as the catalog version
+ * changes, so repeated audits of the same student cost a map lookup.
+ */
+public class DegreeAuditEngine {
+
+    /**
+     * Progress toward one declared major.
+     *
+     * @param remaining Required courses neither completed nor in progress
+     * @param eligibleNext Remaining courses whose prerequisites are met once
+     * the in-progress courses are passed
+     */
+    public record MajorProgress(String majorId, String title, int totalHours, List<String> required,
+            List<String> completed, List<String> inProgress, List<String> remaining, int remainingHours,
+            List<String> eligibleNext) {
+
+    }
+
+    /**
+     * A student's audit as of one date. Hours count each course once, across
+     * all majors.
+     */
+    public record Audit(int studentId, LocalDate asOf, List<String> completed, List<String> inProgress,
+            int completedHours, int inProgressHours, List<MajorProgress> majors) {
+
+    }
+
+    private record CachedAudit(long version, Audit audit) {
+
+    }
+
+    private static final Set<String> NOT_PASSED = Set.of("F", "W", "WF", "I", "NC", "U");
+
+    private final Supplier<AcademicCatalog> catalogs;
+    private final Map<Integer, CachedAudit> cache = new ConcurrentHashMap<>();
+    private volatile long cachedVersion = Long.MIN_VALUE;
+
+    public DegreeAuditEngine(Supplier<AcademicCatalog> catalogs) {
+        this.catalogs = catalogs;
+    }
+
+    public Audit audit(int studentId) {
+        return audit(studentId, LocalDate.now());
+    }
+
+    /**
+     * @return The student's audit, or null if there is no such student
+     */
+    public Audit audit(int studentId, LocalDate asOf) {
+        AcademicCatalog catalog = catalogs.get();
+        long version = catalog.version();
+        if (version != cachedVersion) {
+            cache.clear();
+            cachedVersion = version;
+        }
+        CachedAudit cached = cache.get(studentId);
+        if (cached != null && cached.version() == version && cached.audit().asOf().equals(asOf)) {
+            return cached.audit();
+        }
+        Audit audit = compute(catalog, studentId, asOf);
+        if (audit != null) {
+            cache.put(studentId, new CachedAudit(version, audit));
+        }
+        return audit;
+    }
+
+    /**
+     * @return Number of students with a cached audit for the current catalog
+     */
+    int cachedCount() {
+        return cache.size();
+    }
+
+    private static Audit compute(AcademicCatalog catalog, int studentId, LocalDate asOf) {
+        AcademicDatabase database = catalog.database();
+        if (database.getStudent(studentId) == null) {
+            return null;
+        }
+        Set<String> completed = new LinkedHashSet<>();
+        Set<String> inProgress = new LinkedHashSet<>();
+        for (AcademicDatabase.Enrollment enrollment : database.getEnrollmentsForStudent(studentId)) {
+            AcademicDatabase.Section section = database.getSection(enrollment.crn());
+            if (section == null) {
+                continue;
+            }
+            String grade = enrollment.grade();
+            if (grade != null) {
+                if (!NOT_PASSED.contains(grade.strip().toUpperCase())) {
+                    completed.add(section.courseId());
+                }
+            } else if (section.endDate().isBefore(asOf)) {
+                completed.add(section.courseId());
+            } else {
+                inProgress.add(section.courseId());
+            }
+        }
+        inProgress.removeAll(completed);
+
+        CourseKeyIndex keys = database.getCourseKeys();
+        BitSet assumed = new BitSet(keys.size());
+        for (String courseId : completed) {
+            assumed.set(keys.idOf(courseId));
+        }
+        for (String courseId : inProgress) {
+            assumed.set(keys.idOf(courseId));
+        }
+        List<MajorProgress> majors = new ArrayList<>();
+        for (String majorId : database.getMajorsForStudent(studentId)) {
+            AcademicDatabase.Major major = database.getMajor(majorId);
+            List<String> required = database.getCoursesForMajor(majorId);
+            List<String> done = new ArrayList<>();
+            List<String> taking = new ArrayList<>();
+            List<String> remaining = new ArrayList<>();
+            List<String> eligible = new ArrayList<>();
+            for (String courseId : required) {
+                if (completed.contains(courseId)) {
+                    done.add(courseId);
+                } else if (inProgress.contains(courseId)) {
+                    taking.add(courseId);
+                } else {
+                    remaining.add(courseId);
+                    int key = keys.idOf(courseId);
+                    if (key >= 0 && catalog.graph().check(key, assumed).isEligible()) {
+                        eligible.add(courseId);
+                    }
+                }
+            }
+            majors.add(new MajorProgress(majorId, major != null ? major.title() : majorId,
+                    major != null ? major.hours() : 0, required, done, taking, remaining,
+                    hours(database, remaining), eligible));
+        }
+        return new Audit(studentId, asOf, List.copyOf(completed), List.copyOf(inProgress),
+                hours(database, completed), hours(database, inProgress), majors);
+    }
+
+    private static int hours(AcademicDatabase database, Collection<String> courseIds) {
+        int total = 0;
+        for (String courseId : courseIds) {
+            AcademicDatabase.Course course = database.getCourse(courseId);
+            if (course != null) {
+                total += course.hours();
+            }
+        }
+        return total;
+    }
+}
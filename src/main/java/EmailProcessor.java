@@ -1,8 +1,12 @@
 
+import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.mail.MessagingException;
 
@@ -11,6 +15,8 @@ import org.json.JSONObject;
 
 public class EmailProcessor {
 
+    private static final long BATCH_SETTLE_MILLIS = 500;
+
     public static String extractNameFromEmail(String email) {
         String[] parts = email.split("@");
         String username = parts[0];
@@ -44,90 +50,168 @@ public class EmailProcessor {
             ChatbotAPI chatbot = new ChatbotAPI();
             ConversationManager conversationManager = new ConversationManager();
 
-            JSONObject result = new JSONObject();
-            result.put("status", "success");
-            result.put("timestamp", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(new Date()));
+            System.out.println(processBatch(emailService, chatbot, conversationManager).toString(4));
 
-            List<Map<String, String>> emails = emailService.getNewEmails();
+            emailService.close();
+            conversationManager.close();
+        } catch (Exception e) {
+            System.out.println(errorResult(e).toString(4));
+        }
+    }
 
-            if (emails.isEmpty()) {
-                result.put("message", "No new emails found.");
-                System.out.println(result.toString(4));
-                return;
+    /**
+     * Keeps running and answers mail as it arrives. The inbox watcher holds
+     * one IMAP connection open and wakes this loop for each new message, so a
+     * reply goes out seconds after the email lands instead of on the next
+     * cron run.
+     */
+    public static void watchEmails() {
+        try {
+            EmailService emailService = new EmailService();
+            ChatbotAPI chatbot = new ChatbotAPI();
+            ConversationManager conversationManager = new ConversationManager();
+            BlockingQueue<Long> arrivals = new LinkedBlockingQueue<>();
+            InboxWatcher watcher = emailService.startWatching(arrivals);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                watcher.close();
+                emailService.close();
+                conversationManager.close();
+            }));
+
+            // Catch up on anything that arrived while nothing was watching
+            System.out.println(processBatch(emailService, chatbot, conversationManager).toString(4));
+            while (true) {
+                arrivals.take();
+                // Let a burst of arrivals settle into one batch
+                Thread.sleep(BATCH_SETTLE_MILLIS);
+                arrivals.clear();
+                try {
+                    System.out.println(processBatch(emailService, chatbot, conversationManager).toString(4));
+                } catch (Exception e) {
+                    System.out.println(errorResult(e).toString(4));
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.println(errorResult(e).toString(4));
+        }
+    }
 
-            result.put("totalEmails", emails.size());
-            JSONArray processedEmails = new JSONArray();
-
-            for (Map<String, String> email : emails) {
-                JSONObject emailData = new JSONObject();
-                emailData.put("id", email.get("id"));
-                emailData.put("from", email.get("from"));
-                emailData.put("subject", email.get("subject"));
-
-                int conversationId = conversationManager.getOrCreateConversation(email.get("from"));
-                emailData.put("conversationId", conversationId);
+    private static JSONObject processBatch(EmailService emailService, ChatbotAPI chatbot,
+            ConversationManager conversationManager) throws MessagingException, SQLException {
+        JSONObject result = new JSONObject();
+        result.put("status", "success");
+        result.put("timestamp", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(new Date()));
 
-                String userName = conversationManager.getUserName(email.get("from"));
-                if (userName == null || userName.isEmpty()) {
-                    userName = extractNameFromEmail(email.get("from"));
-                    conversationManager.getUserName(email.get("from"), userName);
-                }
-                emailData.put("userName", userName);
+        List<Map<String, String>> emails = emailService.getNewEmails();
 
-                List<Map<String, Object>> conversationHistory
-                        = conversationManager.getConversationHistory(email.get("from"), 10);
-                List<Map<String, String>> formattedHistory
-                        = conversationManager.formatHistoryForAssistant(conversationHistory);
-                emailData.put("historyCount", conversationHistory.size());
+        if (emails.isEmpty()) {
+            result.put("message", "No new emails found.");
+            return result;
+        }
 
-                int userMessageId = conversationManager.addMessage(conversationId, email.get("body"), true);
-                emailData.put("userMessageId", userMessageId);
+        result.put("totalEmails", emails.size());
+        JSONArray processedEmails = new JSONArray();
+        // SEEN is set on the whole cycle's mail in one STORE at the end
+        List<Long> handled = new ArrayList<>();
+        boolean markAfterReply = Config.getInstance().getEmailMarkAfterReply();
 
-                String message = email.get("body");
-                String response = chatbot.run(message, formattedHistory, userName);
+        try {
+            answerEmails(emails, emailService, chatbot, conversationManager, processedEmails, handled, markAfterReply);
+        } finally {
+            try {
+                emailService.markAsRead(handled);
+                result.put("markedRead", handled.size());
+            } catch (MessagingException e) {
+                System.err.println("Failed to mark emails as read: " + e.getMessage());
+            }
+        }
 
-                String formattedResponse = conversationManager.formatEmailContent(response);
+        result.put("processedEmails", processedEmails);
+        result.put("message", "Email processing complete.");
+        return result;
+    }
 
-                conversationManager.addMessage(conversationId, response, false);
+    private static void answerEmails(List<Map<String, String>> emails, EmailService emailService,
+            ChatbotAPI chatbot, ConversationManager conversationManager, JSONArray processedEmails,
+            List<Long> handled, boolean markAfterReply) throws SQLException {
+        for (Map<String, String> email : emails) {
+            JSONObject emailData = new JSONObject();
+            emailData.put("id", email.get("id"));
+            emailData.put("from", email.get("from"));
+            emailData.put("subject", email.get("subject"));
+
+            int conversationId = conversationManager.getOrCreateConversation(email.get("from"));
+            emailData.put("conversationId", conversationId);
+
+            String userName = conversationManager.getUserName(email.get("from"));
+            if (userName == null || userName.isEmpty()) {
+                userName = extractNameFromEmail(email.get("from"));
+                conversationManager.getUserName(email.get("from"), userName);
+            }
+            emailData.put("userName", userName);
 
-                String responsePreview = response != null && response.length() > 100
-                        ? response.substring(0, 100) + "..." : response;
-                emailData.put("responsePreview", responsePreview);
+            List<Map<String, Object>> conversationHistory
+                    = conversationManager.getConversationHistory(email.get("from"), 10);
+            List<Map<String, String>> formattedHistory
+                    = conversationManager.formatHistoryForAssistant(conversationHistory);
+            emailData.put("historyCount", conversationHistory.size());
 
-                try {
-                    emailService.markAsRead(email.get("id"));
-                } catch (MessagingException e) {
-                    System.err.println("Failed to mark email as read: " + e.getMessage());
-                    continue;
-                }
-                String replySubject = email.get("subject").toLowerCase().startsWith("re:")
-                        ? email.get("subject") : "Re: " + email.get("subject");
-                emailService.replyToEmail(email.get("id"), email.get("from"), replySubject, formattedResponse);
-                emailData.put("replySent", true);
+            int userMessageId = conversationManager.addMessage(conversationId, email.get("body"), true);
+            emailData.put("userMessageId", userMessageId);
 
-                processedEmails.put(emailData);
-            }
+            String message = email.get("body");
+            String response = chatbot.run(message, formattedHistory, userName, email.get("from"));
 
-            result.put("processedEmails", processedEmails);
-            result.put("message", "Email processing complete.");
+            String formattedResponse = conversationManager.formatEmailContent(response);
 
-            emailService.close();
-            conversationManager.close();
+            conversationManager.addMessage(conversationId, response, false);
 
-            System.out.println(result.toString(4));
+            String responsePreview = response != null && response.length() > 100
+                    ? response.substring(0, 100) + "..." : response;
+            emailData.put("responsePreview", responsePreview);
 
-        } catch (Exception e) {
-            JSONObject errorData = new JSONObject();
-            errorData.put("status", "error");
-            errorData.put("timestamp", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(new Date()));
-            errorData.put("message", e.getMessage());
+            long uid = Long.parseLong(email.get("id"));
+            if (!markAfterReply) {
+                handled.add(uid);
+            }
+            String replySubject = email.get("subject").toLowerCase().startsWith("re:")
+                    ? email.get("subject") : "Re: " + email.get("subject");
+            boolean sent;
+            try {
+                sent = emailService.replyToEmail(email, replySubject, formattedResponse);
+            } catch (MessagingException e) {
+                // One failed send must not stop the rest of the batch
+                System.err.println("Failed to send reply to " + email.get("from") + ": " + e.getMessage());
+                sent = false;
+            }
+            if (sent && markAfterReply) {
+                handled.add(uid);
+            }
+            emailData.put("replySent", sent);
 
-            System.out.println(errorData.toString(4));
+            processedEmails.put(emailData);
         }
     }
 
+    private static JSONObject errorResult(Exception e) {
+        JSONObject errorData = new JSONObject();
+        errorData.put("status", "error");
+        errorData.put("timestamp", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(new Date()));
+        errorData.put("message", e.getMessage());
+        return errorData;
+    }
+
+    /**
+     * Processes unread mail once and exits, or with {@code --watch} keeps
+     * running and answers mail as it arrives.
+     */
     public static void main(String[] args) {
-        processEmails();
+        if (args.length > 0 && "--watch".equals(args[0])) {
+            watchEmails();
+        } else {
+            processEmails();
+        }
     }
 }
@@ -1,6 +1,7 @@
 
 import java.util.*;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
 import javax.mail.*;
 import javax.mail.internet.*;
 import javax.mail.search.FlagTerm;
@@ -12,15 +13,18 @@ public class EmailService {
     private Session session;
     private Store store;
     private boolean connected = false;
+    private String emailImapHost;
     private String emailAccount;
     private String emailPassword;
     private String emailServer;
     private int emailSmtpPort;
     private boolean useSmtp;
+    private final UidHighWaterMark uidMark;
+    private final FolderSession inboxSession = new FolderSession(this, "INBOX");
 
     public EmailService() throws MessagingException {
         Config config = Config.getInstance();
-        String emailImapHost = config.getEmailImapHost();
+        this.emailImapHost = config.getEmailImapHost();
         int emailPort = config.getEmailPort();
         this.emailAccount = config.getEmailAccount();
         this.emailPassword = config.getEmailPassword();
@@ -28,6 +32,7 @@ public class EmailService {
         this.emailServer = config.getEmailServer();
         this.emailSmtpPort = config.getEmailSmtpPort();
         this.useSmtp = config.getUseSmtp();
+        this.uidMark = new UidHighWaterMark(new File(config.getEmailUidStateFile()));
 
         Properties properties = new Properties();
         properties.put("mail.store.protocol", "imaps");
@@ -35,6 +40,8 @@ public class EmailService {
         properties.put("mail.imaps.port", emailPort);
         properties.put("mail.imaps.ssl.enable", "true");
         properties.put("mail.imaps.ssl.trust", emailImapHost);
+        // Reading a body must not set \Seen; only markAsRead does, once a message is handled
+        properties.put("mail.imaps.peek", "true");
 
         session = Session.getDefaultInstance(properties);
 
@@ -47,7 +54,27 @@ public class EmailService {
         }
     }
 
+    /**
+     * @return The IMAP store, reconnected first if the server dropped it
+     */
+    synchronized Store connectedStore() throws MessagingException {
+        if (!store.isConnected()) {
+            store.connect(emailImapHost, emailAccount, emailPassword);
+            connected = true;
+        }
+        return store;
+    }
+
+    /**
+     * Starts watching INBOX over this connection; the UID of each message
+     * that arrives is added to {@code arrivals}.
+     */
+    public InboxWatcher startWatching(BlockingQueue<Long> arrivals) {
+        return new InboxWatcher(this, arrivals, Config.getInstance().getEmailWatchPollSeconds()).start();
+    }
+
     public void close() {
+        inboxSession.close();
         if (connected) {
             try {
                 store.close();
@@ -59,17 +86,37 @@ public class EmailService {
     }
 
     public List<Map<String, String>> getNewEmails() throws MessagingException {
-        List<Map<String, String>> emails = new ArrayList<>();
-
-        Folder inbox = store.getFolder("INBOX");
-        inbox.open(Folder.READ_WRITE);
+        return inboxSession.call(this::readNewEmails);
+    }
 
-        Flags seen = new Flags(Flags.Flag.SEEN);
-        FlagTerm unseenFlagTerm = new FlagTerm(seen, false);
-        Message[] messages = inbox.search(unseenFlagTerm);
+    private List<Map<String, String>> readNewEmails(Folder inbox) throws MessagingException {
+        List<Map<String, String>> emails = new ArrayList<>();
+        UIDFolder uidFolder = (UIDFolder) inbox;
+
+        long validity = uidFolder.getUIDValidity();
+        long uidNext = uidFolder.getUIDNext();
+        long after = uidMark.resumeAfter(validity);
+        Message[] messages;
+        if (after < 0) {
+            // No mark for this mailbox yet: one full search for unseen mail
+            Flags seen = new Flags(Flags.Flag.SEEN);
+            FlagTerm unseenFlagTerm = new FlagTerm(seen, false);
+            messages = inbox.search(unseenFlagTerm);
+        } else {
+            messages = uidFolder.getMessagesByUID(after + 1, UIDFolder.LASTUID);
+        }
+        inbox.fetch(messages, newMailProfile());
 
+        List<Long> uids = new ArrayList<>();
         for (int i = 0; i < messages.length; i++) {
             Message message = messages[i];
+            long uid = uidFolder.getUID(message);
+            // n:* always returns the newest message, even when its UID is below n.
+            // A pending message is retried even if something else marked it seen.
+            if (uid <= after || (message.isSet(Flags.Flag.SEEN) && !uidMark.isPending(validity, uid))) {
+                continue;
+            }
+            uids.add(uid);
             Map<String, String> email = new HashMap<>();
 
             String messageId = "";
@@ -77,6 +124,8 @@ public class EmailService {
             if (headers != null && headers.length > 0) {
                 messageId = headers[0];
             }
+            String[] referencesHeaders = message.getHeader("References");
+            String references = referencesHeaders != null && referencesHeaders.length > 0 ? referencesHeaders[0] : "";
 
             Address[] fromAddresses = message.getFrom();
             String fromAddress = "";
@@ -97,8 +146,9 @@ public class EmailService {
                     ? new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(sentDate)
                     : new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
 
-            email.put("id", String.valueOf(message.getMessageNumber()));
+            email.put("id", String.valueOf(uid));
             email.put("message_id", messageId);
+            email.put("references", references);
             email.put("from", fromAddress);
             email.put("subject", subject);
             email.put("body", body);
@@ -107,26 +157,36 @@ public class EmailService {
             emails.add(email);
         }
 
-        inbox.close(false);
+        uidMark.fetched(validity, uids, uidNext > 0 ? uidNext - 1 : after);
         return emails;
     }
 
+    /**
+     * Everything getNewEmails reads from a message, so one FETCH brings it
+     * all: UID, flags, envelope (from, subject, date), the threading headers
+     * and the body structure used to pick the text part.
+     */
+    private static FetchProfile newMailProfile() {
+        FetchProfile profile = new FetchProfile();
+        profile.add(UIDFolder.FetchProfileItem.UID);
+        profile.add(FetchProfile.Item.FLAGS);
+        profile.add(FetchProfile.Item.ENVELOPE);
+        profile.add(FetchProfile.Item.CONTENT_INFO);
+        profile.add("Message-ID");
+        profile.add("References");
+        return profile;
+    }
+
     private String getEmailBody(Message message) throws MessagingException {
         String body = "";
         try {
-            Object content = message.getContent();
-
-            if (content instanceof String) {
-                body = (String) content;
-            } else if (content instanceof Multipart) {
-                Multipart multipart = (Multipart) content;
-                body = getPart(multipart);
-            }
-
-            if (body.contains("<html") || body.contains("<body")) {
-                body = stripHtml(body);
+            Part text = findTextPart(message);
+            if (text != null) {
+                body = text.getContent().toString();
+                if (text.isMimeType("text/html") || body.contains("<html") || body.contains("<body")) {
+                    body = stripHtml(body);
+                }
             }
-
         } catch (IOException e) {
             System.err.println("Error reading email content: " + e.getMessage());
         }
@@ -134,24 +194,30 @@ public class EmailService {
         return body.trim();
     }
 
-    private String getPart(Multipart multipart) throws MessagingException, IOException {
-        StringBuilder result = new StringBuilder();
-
+    /**
+     * Picks the part to answer from using only the body structure: the
+     * first text/plain part, otherwise the first text/html part. Only that
+     * part is downloaded later; attachments never are.
+     */
+    private Part findTextPart(Part part) throws MessagingException, IOException {
+        if (part.isMimeType("text/plain") || part.isMimeType("text/html")) {
+            return Part.ATTACHMENT.equalsIgnoreCase(part.getDisposition()) ? null : part;
+        }
+        if (!part.isMimeType("multipart/*")) {
+            return null;
+        }
+        Multipart multipart = (Multipart) part.getContent();
+        Part html = null;
         for (int i = 0; i < multipart.getCount(); i++) {
-            BodyPart bodyPart = multipart.getBodyPart(i);
-
-            if (bodyPart.isMimeType("text/plain")) {
-                result.append(bodyPart.getContent().toString());
-                break;
-            } else if (bodyPart.isMimeType("text/html")) {
-                String html = bodyPart.getContent().toString();
-                result.append(stripHtml(html));
-            } else if (bodyPart.getContent() instanceof Multipart) {
-                result.append(getPart((Multipart) bodyPart.getContent()));
+            Part found = findTextPart(multipart.getBodyPart(i));
+            if (found != null && found.isMimeType("text/plain")) {
+                return found;
+            }
+            if (found != null && html == null) {
+                html = found;
             }
         }
-
-        return result.toString();
+        return html;
     }
 
     private String stripHtml(String html) {
@@ -162,15 +228,40 @@ public class EmailService {
                 .replaceAll("&amp;", "&");
     }
 
+    /**
+     * @param msgId The email's "id", its INBOX UID
+     */
     public void markAsRead(String msgId) throws MessagingException {
-        Folder inbox = store.getFolder("INBOX");
-        inbox.open(Folder.READ_WRITE);
-
-        int messageNumber = Integer.parseInt(msgId);
-        Message message = inbox.getMessage(messageNumber);
-        message.setFlag(Flags.Flag.SEEN, true);
+        markAsRead(List.of(Long.parseLong(msgId)));
+    }
 
-        inbox.close(false);
+    /**
+     * Sets SEEN on all the given messages with a single STORE over the set,
+     * instead of one command per message, and records them as handled.
+     * Messages that have since been expunged are skipped.
+     *
+     * @param uids INBOX UIDs of the handled messages
+     */
+    public void markAsRead(Collection<Long> uids) throws MessagingException {
+        if (uids.isEmpty()) {
+            return;
+        }
+        long[] ids = uids.stream().mapToLong(Long::longValue).toArray();
+        inboxSession.call(inbox -> {
+            List<Message> found = new ArrayList<>(ids.length);
+            for (Message message : ((UIDFolder) inbox).getMessagesByUID(ids)) {
+                if (message != null) {
+                    found.add(message);
+                }
+            }
+            if (!found.isEmpty()) {
+                inbox.setFlags(found.toArray(new Message[0]), new Flags(Flags.Flag.SEEN), true);
+            }
+            return null;
+        });
+        for (long uid : ids) {
+            uidMark.acknowledge(uid);
+        }
     }
 
     public boolean sendEmail(String to, String subject, String body) throws MessagingException {
@@ -206,28 +297,24 @@ public class EmailService {
         }
     }
 
-    public boolean replyToEmail(String msgId, String to, String subject, String body)
+    /**
+     * Replies to the sender of an email returned by {@link #getNewEmails},
+     * threading the reply with the Message-ID and References headers fetched
+     * along with it, so no further IMAP command is needed.
+     */
+    public boolean replyToEmail(Map<String, String> email, String subject, String body)
             throws MessagingException {
-        Folder inbox = store.getFolder("INBOX");
-        inbox.open(Folder.READ_ONLY);
-
-        int messageNumber = Integer.parseInt(msgId);
-        Message message = inbox.getMessage(messageNumber);
-
-        String[] headers = message.getHeader("Message-ID");
-        String inReplyTo = headers != null && headers.length > 0 ? headers[0] : "";
+        String inReplyTo = email.getOrDefault("message_id", "");
+        String previous = email.getOrDefault("references", "");
 
         String references = "";
-        String[] referencesHeaders = message.getHeader("References");
-        if (referencesHeaders != null && referencesHeaders.length > 0) {
-            references = referencesHeaders[0] + " " + inReplyTo;
+        if (!previous.isEmpty()) {
+            references = previous + " " + inReplyTo;
         } else {
             references = inReplyTo;
         }
 
-        inbox.close(false);
-
-        return sendEmailWithHeaders(to, subject, body, inReplyTo, references);
+        return sendEmailWithHeaders(email.get("from"), subject, body, inReplyTo, references);
     }
 
     private boolean sendEmailWithHeaders(String to, String subject, String body, String inReplyTo, String references)
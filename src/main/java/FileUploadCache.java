@@ -0,0 +1,95 @@
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the SHA-256 of a file's content and its upload purpose to the OpenAI
+ * file ID it was uploaded as, so an unchanged file is never sent twice. The
+ * mapping is kept in a properties file and survives restarts.
+ *
+ * A cached ID is confirmed with the API the first time it is used in a
+ * process, in case the file was deleted remotely; after that it is trusted
+ * for the life of the process.
+ */
+public class FileUploadCache {
+
+    private final File cacheFile;
+    private final Properties entries;
+    private final Set<String> verifiedIds = ConcurrentHashMap.newKeySet();
+
+    public FileUploadCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+        this.entries = PropertiesFiles.load(cacheFile);
+    }
+
+    public static String keyFor(File file, String purpose) throws IOException {
+        return purpose + ":" + sha256(file);
+    }
+
+    public synchronized String get(String key) {
+        return entries.getProperty(key);
+    }
+
+    public synchronized void put(String key, String fileId) {
+        entries.setProperty(key, fileId);
+        PropertiesFiles.save(entries, cacheFile, "OpenAI file IDs by purpose and content hash");
+    }
+
+    public synchronized void remove(String key) {
+        Object fileId = entries.remove(key);
+        if (fileId != null) {
+            verifiedIds.remove(fileId);
+            PropertiesFiles.save(entries, cacheFile, "OpenAI file IDs by purpose and content hash");
+        }
+    }
+
+    /**
+     * Forgets every entry that maps to a file ID, for a file that has been
+     * deleted remotely.
+     */
+    public synchronized void removeFileId(String fileId) {
+        verifiedIds.remove(fileId);
+        if (entries.values().removeIf(fileId::equals)) {
+            PropertiesFiles.save(entries, cacheFile, "OpenAI file IDs by purpose and content hash");
+        }
+    }
+
+    /**
+     * @return True if the ID has already been confirmed to exist during this
+     * process
+     */
+    public boolean isVerified(String fileId) {
+        return verifiedIds.contains(fileId);
+    }
+
+    public void markVerified(String fileId) {
+        verifiedIds.add(fileId);
+    }
+
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,67 @@
+
+import java.io.Closeable;
+
+import javax.mail.Folder;
+import javax.mail.FolderClosedException;
+import javax.mail.MessagingException;
+import javax.mail.StoreClosedException;
+
+/**
+ * One mail folder held open in READ_WRITE mode and shared by every operation,
+ * instead of a SELECT and CLOSE around each one. If the server has dropped the
+ * folder or the connection, the session reconnects, reopens the folder and
+ * runs the operation once more. Operations should therefore be safe to
+ * repeat, as fetches and flag changes are.
+ */
+public class FolderSession implements Closeable {
+
+    /**
+     * Work done against the open folder.
+     */
+    public interface Operation<T> {
+
+        T apply(Folder folder) throws MessagingException;
+    }
+
+    private final EmailService emailService;
+    private final String name;
+    private Folder folder;
+
+    public FolderSession(EmailService emailService, String name) {
+        this.emailService = emailService;
+        this.name = name;
+    }
+
+    /**
+     * Runs an operation on the open folder, opening it first if needed.
+     */
+    public synchronized <T> T call(Operation<T> operation) throws MessagingException {
+        try {
+            return operation.apply(open());
+        } catch (FolderClosedException | StoreClosedException e) {
+            System.err.println("Folder " + name + " was closed, reopening: " + e.getMessage());
+            folder = null;
+            return operation.apply(open());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (folder != null && folder.isOpen()) {
+            try {
+                folder.close(false);
+            } catch (MessagingException e) {
+                System.err.println("Error closing folder " + name + ": " + e.getMessage());
+            }
+        }
+        folder = null;
+    }
+
+    private Folder open() throws MessagingException {
+        if (folder == null || !folder.isOpen()) {
+            folder = emailService.connectedStore().getFolder(name);
+            folder.open(Folder.READ_WRITE);
+        }
+        return folder;
+    }
+}
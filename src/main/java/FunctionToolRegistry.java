@@ -0,0 +1,141 @@
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Function tools the assistant may call during a run. Each tool has a JSON
+ * schema for its arguments and a local handler; {@link #getDefinitions()}
+ * produces the {@code tools} entries for a run, and when the run stops with
+ * {@code requires_action} the requested calls are executed in parallel by
+ * {@link #executeAsync} and their outputs submitted back to the run.
+ *
+ * A handler that throws does not fail the run: the error is returned to the
+ * model as the tool's output so it can answer without that data.
+ */
+public class FunctionToolRegistry {
+
+    /**
+     * Executes one tool call.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * @param arguments The arguments the model supplied, parsed from JSON
+         * @return The tool output sent back to the model, usually JSON text
+         */
+        String call(JSONObject arguments) throws Exception;
+    }
+
+    private record Tool(JSONObject definition, Handler handler) {
+
+    }
+
+    private final Map<String, Tool> tools = new LinkedHashMap<>();
+    private final Executor executor;
+
+    public FunctionToolRegistry() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor Runs the handlers of a batch of tool calls
+     */
+    public FunctionToolRegistry(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param parameters JSON schema of the arguments object
+     */
+    public FunctionToolRegistry register(String name, String description, JSONObject parameters, Handler handler) {
+        JSONObject function = new JSONObject()
+                .put("name", name)
+                .put("description", description)
+                .put("parameters", parameters);
+        tools.put(name, new Tool(new JSONObject().put("type", "function").put("function", function), handler));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return tools.isEmpty();
+    }
+
+    /**
+     * @return One {@code {"type": "function", ...}} entry per tool, suitable
+     * for the {@code tools} list of an assistant or run
+     */
+    public List<JSONObject> getDefinitions() {
+        List<JSONObject> definitions = new ArrayList<>(tools.size());
+        for (Tool tool : tools.values()) {
+            definitions.add(tool.definition());
+        }
+        return definitions;
+    }
+
+    /**
+     * @return The tool calls a run is waiting on, or null if it is not
+     * waiting for tool outputs
+     */
+    public static JSONArray pendingToolCalls(JSONObject run) {
+        if (run == null || !"requires_action".equals(run.optString("status"))) {
+            return null;
+        }
+        JSONObject requiredAction = run.optJSONObject("required_action");
+        JSONObject submit = requiredAction == null ? null : requiredAction.optJSONObject("submit_tool_outputs");
+        return submit == null ? null : submit.optJSONArray("tool_calls");
+    }
+
+    /**
+     * Runs every call concurrently.
+     *
+     * @param toolCalls The {@code tool_calls} array of a run's required action
+     * @return A future with one {@code {"tool_call_id", "output"}} object per
+     * call, in the order of the calls
+     */
+    public CompletableFuture<List<JSONObject>> executeAsync(JSONArray toolCalls) {
+        List<CompletableFuture<JSONObject>> outputs = new ArrayList<>(toolCalls.length());
+        for (int i = 0; i < toolCalls.length(); i++) {
+            JSONObject toolCall = toolCalls.getJSONObject(i);
+            outputs.add(CompletableFuture.supplyAsync(() -> new JSONObject()
+                    .put("tool_call_id", toolCall.getString("id"))
+                    .put("output", execute(toolCall)), executor));
+        }
+        return CompletableFuture.allOf(outputs.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> outputs.stream().map(CompletableFuture::join).toList());
+    }
+
+    private String execute(JSONObject toolCall) {
+        JSONObject function = toolCall.optJSONObject("function");
+        if (function == null) {
+            return error("Unsupported tool call type: " + toolCall.optString("type"));
+        }
+        String name = function.optString("name");
+        Tool tool = tools.get(name);
+        if (tool == null) {
+            return error("Unknown function: " + name);
+        }
+        try {
+            String arguments = function.optString("arguments", "");
+            return tool.handler().call(arguments.isBlank() ? new JSONObject() : new JSONObject(arguments));
+        } catch (JSONException e) {
+            return error("Invalid arguments for " + name + ": " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("Tool " + name + " failed: " + e.getMessage());
+            return error(name + " failed: " + e.getMessage());
+        }
+    }
+
+    private static String error(String message) {
+        return new JSONObject().put("error", message).toString();
+    }
+}
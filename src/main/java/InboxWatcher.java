@@ -0,0 +1,167 @@
+
+import java.io.Closeable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.UIDFolder;
+import javax.mail.event.MessageCountAdapter;
+import javax.mail.event.MessageCountEvent;
+
+import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.IMAPStore;
+
+/**
+ * Keeps INBOX open on the {@link EmailService} connection and reports the UID
+ * of every message that arrives. The folder waits in IMAP IDLE, so the server
+ * pushes new mail as soon as it lands. If the server does not support IDLE,
+ * the watcher sends a NOOP every poll interval instead. Either way one
+ * connection stays open and new UIDs go into the queue given to the
+ * constructor.
+ *
+ * Servers drop an IDLE after about 30 minutes, so it is interrupted with a
+ * NOOP every few minutes and then started again. If the connection is lost,
+ * the watcher reconnects with a growing delay.
+ */
+public class InboxWatcher implements Runnable, Closeable {
+
+    private static final long IDLE_REFRESH_MINUTES = 9;
+    private static final long MAX_RETRY_SECONDS = 300;
+
+    private final EmailService emailService;
+    private final BlockingQueue<Long> arrivals;
+    private final long pollSeconds;
+    private final ScheduledExecutorService keepAlive = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inbox-keepalive");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running = true;
+    private volatile IMAPFolder folder;
+
+    /**
+     * @param arrivals Receives the UID of each new message
+     * @param pollSeconds How often to send NOOP when the server has no IDLE
+     */
+    public InboxWatcher(EmailService emailService, BlockingQueue<Long> arrivals, long pollSeconds) {
+        this.emailService = emailService;
+        this.arrivals = arrivals;
+        this.pollSeconds = pollSeconds;
+    }
+
+    /**
+     * Runs the watcher on a daemon thread.
+     */
+    public InboxWatcher start() {
+        Thread thread = new Thread(this, "inbox-watch");
+        thread.setDaemon(true);
+        thread.start();
+        keepAlive.scheduleWithFixedDelay(this::refresh, IDLE_REFRESH_MINUTES, IDLE_REFRESH_MINUTES, TimeUnit.MINUTES);
+        return this;
+    }
+
+    @Override
+    public void run() {
+        long retrySeconds = 1;
+        while (running) {
+            try {
+                IMAPStore store = (IMAPStore) emailService.connectedStore();
+                IMAPFolder inbox = (IMAPFolder) store.getFolder("INBOX");
+                inbox.addMessageCountListener(new MessageCountAdapter() {
+                    @Override
+                    public void messagesAdded(MessageCountEvent event) {
+                        enqueue(inbox, event.getMessages());
+                    }
+                });
+                inbox.open(Folder.READ_ONLY);
+                folder = inbox;
+                boolean idle = store.hasCapability("IDLE");
+                System.err.println("Watching INBOX with " + (idle ? "IDLE" : "NOOP every " + pollSeconds + "s"));
+                retrySeconds = 1;
+                while (running && inbox.isOpen()) {
+                    if (idle) {
+                        inbox.idle();
+                    } else {
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(pollSeconds));
+                        noop(inbox);
+                    }
+                }
+            } catch (MessagingException | RuntimeException e) {
+                // IllegalStateException when the folder closes mid-IDLE; anything else must not end the watch
+                if (!running) {
+                    break;
+                }
+                System.err.println("Inbox watch interrupted, reconnecting in " + retrySeconds + "s: " + e);
+                closeFolder();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(retrySeconds));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                retrySeconds = Math.min(MAX_RETRY_SECONDS, retrySeconds * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        closeFolder();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        keepAlive.shutdownNow();
+        closeFolder();
+    }
+
+    private void enqueue(IMAPFolder inbox, Message[] messages) {
+        for (Message message : messages) {
+            try {
+                arrivals.add(((UIDFolder) inbox).getUID(message));
+            } catch (MessagingException e) {
+                System.err.println("Could not read UID of new message: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Interrupts a long IDLE with a NOOP so neither the server nor a
+     * firewall drops the idle connection.
+     */
+    private void refresh() {
+        IMAPFolder current = folder;
+        if (current != null && current.isOpen()) {
+            try {
+                noop(current);
+            } catch (MessagingException | RuntimeException e) {
+                // An exception escaping here would cancel every later keepalive
+                System.err.println("Inbox keepalive failed: " + e);
+            }
+        }
+    }
+
+    private static void noop(IMAPFolder inbox) throws MessagingException {
+        inbox.doCommand(protocol -> {
+            protocol.noop();
+            return null;
+        });
+    }
+
+    private void closeFolder() {
+        IMAPFolder current = folder;
+        folder = null;
+        if (current != null && current.isOpen()) {
+            try {
+                current.close(false);
+            } catch (MessagingException e) {
+                System.err.println("Error closing watched folder: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds a {@code multipart/form-data} request body that streams file parts
+ * straight from disk. File bytes are sent exactly as stored, with no charset
+ * decoding or line splitting, and are read from a {@link FileChannel} in
+ * fixed-size chunks only as fast as the HTTP client asks for them, so memory
+ * use does not grow with the file size.
+ *
+ * Each instance uses a random boundary. The body is sent with a
+ * {@code Content-Length} by default, or chunked when the total size should
+ * not be computed up front.
+ */
+public class MultipartBodyPublisher {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final String boundary;
+    private final List<HttpRequest.BodyPublisher> parts = new ArrayList<>();
+
+    public MultipartBodyPublisher() {
+        byte[] random = new byte[16];
+        RANDOM.nextBytes(random);
+        this.boundary = "----AcuAdvisorBoundary" + HexFormat.of().formatHex(random);
+    }
+
+    public MultipartBodyPublisher withField(String name, String value) {
+        parts.add(bytes("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + escape(name) + "\"\r\n\r\n"
+                + value + "\r\n"));
+        return this;
+    }
+
+    public MultipartBodyPublisher withFile(String name, Path file, String contentType) throws IOException {
+        long size = Files.size(file);
+        parts.add(bytes("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + escape(name) + "\"; filename=\""
+                + escape(file.getFileName().toString()) + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n"));
+        parts.add(HttpRequest.BodyPublishers.fromPublisher(new FileChannelPublisher(file, size), size));
+        parts.add(bytes("\r\n"));
+        return this;
+    }
+
+    public String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    /**
+     * @param chunked Send without a Content-Length header
+     * @return The complete body, ending with the closing boundary
+     */
+    public HttpRequest.BodyPublisher build(boolean chunked) {
+        List<HttpRequest.BodyPublisher> all = new ArrayList<>(parts);
+        all.add(bytes("--" + boundary + "--\r\n"));
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.concat(all.toArray(HttpRequest.BodyPublisher[]::new));
+        return chunked ? HttpRequest.BodyPublishers.fromPublisher(body) : body;
+    }
+
+    private static HttpRequest.BodyPublisher bytes(String text) {
+        return HttpRequest.BodyPublishers.ofByteArray(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\"", "%22").replace("\r", "").replace("\n", "");
+    }
+
+    /**
+     * Publishes a file as a sequence of buffers read with positional
+     * {@link FileChannel} reads, honouring subscriber demand. A fresh channel
+     * is opened per subscription so the body can be replayed on retry.
+     */
+    private static final class FileChannelPublisher implements Flow.Publisher<ByteBuffer> {
+
+        private final Path file;
+        private final long size;
+
+        FileChannelPublisher(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (IOException e) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(e);
+                return;
+            }
+            subscriber.onSubscribe(new FileSubscription(channel, size, subscriber));
+        }
+    }
+
+    private static final class FileSubscription implements Flow.Subscription {
+
+        private final FileChannel channel;
+        private final long size;
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private long position;
+        private boolean finished;
+
+        FileSubscription(FileChannel channel, long size, Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.channel = channel;
+            this.size = size;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Demand must be positive: " + n));
+                return;
+            }
+            demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            close();
+        }
+
+        /**
+         * Emits as many chunks as there is demand for. The work-in-progress
+         * counter keeps re-entrant request() calls from onNext on a single
+         * loop.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (!cancelled && !finished) {
+                    if (position >= size) {
+                        finished = true;
+                        close();
+                        subscriber.onComplete();
+                        break;
+                    }
+                    if (demand.get() == 0) {
+                        break;
+                    }
+                    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, size - position));
+                    try {
+                        while (buffer.hasRemaining()) {
+                            int read = channel.read(buffer, position + buffer.position());
+                            if (read < 0) {
+                                throw new IOException("File shrank while uploading");
+                            }
+                        }
+                    } catch (IOException e) {
+                        finished = true;
+                        close();
+                        subscriber.onError(e);
+                        break;
+                    }
+                    position += buffer.position();
+                    buffer.flip();
+                    demand.decrementAndGet();
+                    subscriber.onNext(buffer);
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to read; a failed close does not affect the upload
+            }
+        }
+    }
+}
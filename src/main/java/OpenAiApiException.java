@@ -0,0 +1,74 @@
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Thrown (or used to complete a future exceptionally) when the OpenAI API
+ * answers a request with a non-2xx status code. Carries the HTTP status and
+ * the structured error fields from the response body so callers can decide
+ * whether to retry, surface or ignore the failure.
+ *
+ * Transport failures (DNS, TLS, timeouts) are reported separately as
+ * {@link java.io.IOException}.
+ */
+public class OpenAiApiException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final String errorType;
+    private final String errorCode;
+    private final String responseBody;
+
+    public OpenAiApiException(int statusCode, String message, String responseBody) {
+        super(message);
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+
+        String type = null;
+        String code = null;
+        if (responseBody != null && !responseBody.isEmpty()) {
+            try {
+                JSONObject error = new JSONObject(responseBody).optJSONObject("error");
+                if (error != null) {
+                    type = error.optString("type", null);
+                    code = error.optString("code", null);
+                }
+            } catch (JSONException e) {
+                // Non-JSON error bodies (e.g. gateway HTML pages) carry no structured fields
+            }
+        }
+        this.errorType = type;
+        this.errorCode = code;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return The {@code error.type} field of the response, or null if absent
+     */
+    public String getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * @return The {@code error.code} field of the response, or null if absent
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public boolean isRateLimited() {
+        return statusCode == 429;
+    }
+
+    public boolean isServerError() {
+        return statusCode >= 500;
+    }
+}
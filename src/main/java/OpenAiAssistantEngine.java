@@ -1,23 +1,25 @@
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -26,6 +28,20 @@ import org.json.JSONObject;
  * provides methods to create and manage assistants, threads, runs, and handle
  * file operations with the OpenAI API.
  *
+ * All requests made by an engine share a single {@link HttpClient}, so TLS
+ * sessions and keep-alive connections to api.openai.com are reused across
+ * calls and HTTP/2 streams are multiplexed over the same connection.
+ *
+ * Requests pass through a {@link RequestGovernor}, which queues bursts to
+ * stay within the account's rate limit and retries throttled or failed
+ * idempotent calls before an error is reported.
+ *
+ * The core thread, message, run, file and delete operations also have
+ * {@code *Async} counterparts that return a {@link CompletableFuture}. Those
+ * never return null: API errors complete the future with an
+ * {@link OpenAiApiException} and transport errors with an
+ * {@link IOException}.
+ *
  * All methods in this class require a valid OpenAI API key to function.
  *
  * @author Caden Finley
@@ -33,16 +49,45 @@ import org.json.JSONObject;
  */
 public class OpenAiAssistantEngine {
 
+    private static final String API_BASE_URL = "https://api.openai.com/v1/";
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 8;
+
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    // Starting pace only; the governor adopts the real limit from response headers
+    private static final int DEFAULT_REQUESTS_PER_MINUTE = 500;
+
+    private static final int DEFAULT_REQUEST_BURST = 20;
+
+    private static final int DEFAULT_MAX_RETRIES = 4;
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(120);
+
+    // Upper bound on requires_action rounds answered for a single run
+    private static final int MAX_TOOL_ROUNDS = 8;
+
     /**
      * The OpenAI API key used for authentication
      */
     private final String USER_API_KEY;
 
-    // Map to store responses by category (e.g., "run", "assistant", "thread", etc.)
-    private final Map<String, List<String>> responseLog;
+    // Shared keep-alive transport used by every request this engine makes
+    private final HttpClient httpClient;
+
+    // Paces requests to the account's rate limit and retries throttled calls
+    private final RequestGovernor requestGovernor;
 
-    // Maximum number of responses to keep per category (to avoid memory issues)
-    private final int maxResponsesPerCategory;
+    // Optional content-hash cache consulted by uploadFile
+    private volatile FileUploadCache fileUploadCache;
+
+    // Polls this engine's in-flight runs on the scheduler thread shared by all engines
+    private final RunPoller runPoller;
+
+    // Recent raw responses by category (e.g., "run", "assistant", "thread", etc.)
+    private final ResponseLog responseLog;
 
     /**
      * Constructs a new OpenAiAssistantEngine with the specified API key.
@@ -50,9 +95,7 @@ public class OpenAiAssistantEngine {
      * @param apiKey The OpenAI API key to use for authentication
      */
     public OpenAiAssistantEngine(String apiKey) {
-        this.USER_API_KEY = apiKey;
-        this.responseLog = new HashMap<>();
-        this.maxResponsesPerCategory = 100;
+        this(apiKey, 100);
     }
 
     /**
@@ -64,56 +107,102 @@ public class OpenAiAssistantEngine {
      * category
      */
     public OpenAiAssistantEngine(String apiKey, int maxResponsesPerCategory) {
+        this(apiKey, maxResponsesPerCategory, DEFAULT_MAX_CONNECTIONS, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Constructs a new OpenAiAssistantEngine with explicit transport settings.
+     *
+     * The JDK HTTP client reads its pool size and keep-alive timeout once per
+     * process, so these values only take effect for the first engine created
+     * and are ignored if the corresponding {@code jdk.httpclient.*} system
+     * properties were already set.
+     *
+     * @param apiKey The OpenAI API key to use for authentication
+     * @param maxResponsesPerCategory Maximum number of responses to store per
+     * category
+     * @param maxConnections Maximum number of pooled connections to keep open
+     * @param idleTimeout How long an idle pooled connection is kept alive
+     */
+    public OpenAiAssistantEngine(String apiKey, int maxResponsesPerCategory, int maxConnections, Duration idleTimeout) {
+        this(apiKey, maxResponsesPerCategory, newHttpClient(maxConnections, idleTimeout));
+    }
+
+    private OpenAiAssistantEngine(String apiKey, int maxResponsesPerCategory, HttpClient httpClient) {
+        this(apiKey, maxResponsesPerCategory, httpClient,
+                new RequestGovernor(httpClient, DEFAULT_REQUESTS_PER_MINUTE, DEFAULT_REQUEST_BURST, DEFAULT_MAX_RETRIES));
+    }
+
+    /**
+     * Constructs an engine that sends its API requests through the given
+     * governor, which tests point at a stub transport.
+     */
+    OpenAiAssistantEngine(String apiKey, int maxResponsesPerCategory, HttpClient httpClient, RequestGovernor requestGovernor) {
         this.USER_API_KEY = apiKey;
-        this.responseLog = new HashMap<>();
-        this.maxResponsesPerCategory = maxResponsesPerCategory;
+        this.responseLog = new ResponseLog(maxResponsesPerCategory);
+        this.httpClient = httpClient;
+        this.requestGovernor = requestGovernor;
+        this.runPoller = new RunPoller((threadId, runId) -> sendAsync(retrieveRunRequest(threadId, runId), "run_status"));
+    }
+
+    private static HttpClient newHttpClient(int maxConnections, Duration idleTimeout) {
+        configureConnectionPool(maxConnections, idleTimeout);
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    private static void configureConnectionPool(int maxConnections, Duration idleTimeout) {
+        String idleSeconds = String.valueOf(Math.max(1, idleTimeout.toSeconds()));
+        setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(Math.max(0, maxConnections)));
+        setIfAbsent("jdk.httpclient.keepalive.timeout", idleSeconds);
+        setIfAbsent("jdk.httpclient.keepalive.timeout.h2", idleSeconds);
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
     }
 
     /*
      * Response Logging Methods
      */
     public void logResponse(String category, String response) {
-        if (response == null) {
-            return;
-        }
-
-        if (!responseLog.containsKey(category)) {
-            responseLog.put(category, new ArrayList<>());
-        }
+        responseLog.add(category, response);
+    }
 
-        List<String> categoryResponses = responseLog.get(category);
-        categoryResponses.add(response);
-        if (categoryResponses.size() > maxResponsesPerCategory) {
-            categoryResponses.remove(0);
-        }
+    /**
+     * @return The response log, for switching logging off or limiting it to
+     * sampled or truncated payloads
+     */
+    public ResponseLog getResponseLog() {
+        return responseLog;
     }
 
     public List<String> getResponsesByCategory(String category) {
-        return responseLog.getOrDefault(category, new ArrayList<>());
+        return responseLog.get(category);
     }
 
     public String getLatestResponse(String category) {
-        List<String> responses = getResponsesByCategory(category);
-        if (responses.isEmpty()) {
-            return null;
-        }
-        return responses.get(responses.size() - 1);
+        return responseLog.latest(category);
     }
 
     public void clearCategory(String category) {
-        responseLog.remove(category);
+        responseLog.clear(category);
     }
 
     public void clearAllResponses() {
-        responseLog.clear();
+        responseLog.clearAll();
     }
 
     public List<String> getCategories() {
-        return new ArrayList<>(responseLog.keySet());
+        return responseLog.getCategories();
     }
 
-    private void handleErrorResponse(HttpURLConnection con) throws IOException {
-        int responseCode = con.getResponseCode();
+    private String describeError(int responseCode, String details) {
         String errorMessage;
         switch (responseCode) {
             case 400 ->
@@ -158,134 +247,225 @@ public class OpenAiAssistantEngine {
                 errorMessage = "Unexpected Error: Received HTTP response code " + responseCode;
         }
 
-        try (BufferedReader errorReader = new BufferedReader(new InputStreamReader(con.getErrorStream()))) {
-            StringBuilder errorResponse = new StringBuilder();
-            String inputLine;
-            while ((inputLine = errorReader.readLine()) != null) {
-                errorResponse.append(inputLine);
-            }
-            errorMessage += "\nDetails: " + errorResponse.toString();
-        } catch (IOException ex) {
-            errorMessage += "\nFailed to read error details: " + ex.getMessage();
+        if (details != null) {
+            errorMessage += "\nDetails: " + details;
         }
+        return errorMessage;
+    }
 
-        System.out.println(errorMessage);
+    private void handleErrorResponse(HttpResponse<String> response) {
+        System.out.println(describeError(response.statusCode(), response.body()));
     }
 
     public static boolean testAPIKey(String apiKey) {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Future<Boolean> future = executor.submit(() -> {
-            String url = "https://api.openai.com/v1/engines";
-            try {
-                URL obj = new URL(url);
-                HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-                con.setRequestMethod("GET");
-                con.setRequestProperty("Authorization", "Bearer " + apiKey);
-                int responseCode = con.getResponseCode();
-                if (responseCode == 200) {
-                    return Boolean.TRUE;
-                } else {
-                    new OpenAiAssistantEngine(apiKey).handleErrorResponse(con);
-                    return Boolean.FALSE;
-                }
-            } catch (IOException e) {
-                System.out.println("Failed to test API key: " + e.getMessage());
-                return Boolean.FALSE;
-            }
-        });
+        OpenAiAssistantEngine engine = new OpenAiAssistantEngine(apiKey);
+        HttpRequest request = engine.request("engines")
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
         try {
-            return future.get(10, TimeUnit.SECONDS);
-        } catch (TimeoutException e) {
-            future.cancel(true);
+            HttpResponse<String> response = engine.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                return true;
+            }
+            engine.handleErrorResponse(response);
             return false;
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (IOException e) {
+            System.out.println("Failed to test API key: " + e.getMessage());
             return false;
-        } finally {
-            executor.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /*
+     * Transport Methods
+     */
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(API_BASE_URL + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + USER_API_KEY);
+    }
+
+    private HttpRequest.Builder assistantsRequest(String path) {
+        return request(path).header("OpenAI-Beta", "assistants=v2");
+    }
+
+    /**
+     * Makes the request a POST of the given JSON body, with its content type.
+     */
+    private static HttpRequest.Builder postJson(HttpRequest.Builder request, JSONObject body) {
+        return request.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a request over the shared client without blocking. The returned
+     * future completes with the response body, or exceptionally with an
+     * {@link OpenAiApiException} for non-2xx answers and an
+     * {@link IOException} for transport failures. Successful bodies are
+     * logged under the given category when it is not null.
+     */
+    private CompletableFuture<String> sendAsync(HttpRequest request, String category) {
+        return requestGovernor.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> {
+                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                        throw new OpenAiApiException(response.statusCode(),
+                                describeError(response.statusCode(), response.body()), response.body());
+                    }
+                    String responseStr = response.body();
+                    if (category != null) {
+                        logResponse(category, responseStr);
+                    }
+                    return responseStr;
+                });
+    }
+
+    /**
+     * Blocking form of {@link #sendAsync}: returns the response body, or null
+     * after reporting the error if the API answered with a non-2xx code.
+     */
+    private String send(HttpRequest request, String category) throws IOException {
+        try {
+            return sendAsync(request, category).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request interrupted: " + request.uri());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OpenAiApiException) {
+                System.out.println(cause.getMessage());
+                return null;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
         }
     }
 
+    private static String extractId(String responseStr) {
+        return new JSONObject(responseStr).getString("id");
+    }
+
     /*
      * File Management Methods
      */
+    /**
+     * Uses a content-hash cache for {@link #uploadFile}. When set, a file whose
+     * content and purpose were uploaded before returns the existing file ID
+     * instead of being sent again.
+     */
+    public void setFileUploadCache(FileUploadCache fileUploadCache) {
+        this.fileUploadCache = fileUploadCache;
+    }
+
     public String uploadFile(File file, String purpose) {
-        String url = "https://api.openai.com/v1/files";
-        String apiKey = USER_API_KEY;
-        try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "multipart/form-data; boundary=---Boundary");
-            con.setDoOutput(true);
-
-            String boundary = "---Boundary";
-            StringBuilder body = new StringBuilder();
-            body.append("--").append(boundary).append("\r\n");
-            body.append("Content-Disposition: form-data; name=\"purpose\"\r\n\r\n");
-            body.append(purpose).append("\r\n");
-            body.append("--").append(boundary).append("\r\n");
-            body.append("Content-Disposition: form-data; name=\"file\"; filename=\"").append(file.getName()).append("\"\r\n");
-            body.append("Content-Type: application/octet-stream\r\n\r\n");
-
-            try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream())) {
-                writer.write(body.toString());
-                writer.flush();
-                try (BufferedReader fileReader = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
-                    String line;
-                    while ((line = fileReader.readLine()) != null) {
-                        writer.write(line);
-                    }
+        String cacheKey = uploadCacheKey(file, purpose);
+        if (cacheKey != null) {
+            String cachedId = fileUploadCache.get(cacheKey);
+            if (cachedId != null) {
+                if (fileUploadCache.isVerified(cachedId) || isUsableFile(retrieveFile(cachedId))) {
+                    fileUploadCache.markVerified(cachedId);
+                    return cachedId;
                 }
-                writer.write("\r\n--");
-                writer.write(boundary);
-                writer.write("--\r\n");
-                writer.flush();
+                fileUploadCache.remove(cacheKey);
             }
+        }
 
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("file_upload", responseStr);
-                JSONObject jsonResponse = new JSONObject(responseStr);
-                return jsonResponse.getString("id");
-            } catch (IOException e) {
-                handleErrorResponse(con);
+        try {
+            String responseStr = send(uploadFileRequest(file, purpose), "file_upload");
+            if (responseStr == null) {
                 return null;
             }
+            return rememberUpload(cacheKey, extractId(responseStr));
         } catch (IOException e) {
             System.out.println("Failed to upload file: " + e.getMessage());
             return null;
         }
     }
 
+    public CompletableFuture<String> uploadFileAsync(File file, String purpose) {
+        String cacheKey = uploadCacheKey(file, purpose);
+        String cachedId = cacheKey == null ? null : fileUploadCache.get(cacheKey);
+        if (cachedId != null && fileUploadCache.isVerified(cachedId)) {
+            return CompletableFuture.completedFuture(cachedId);
+        }
+
+        Supplier<CompletableFuture<String>> upload = () -> {
+            try {
+                return sendAsync(uploadFileRequest(file, purpose), "file_upload")
+                        .thenApply(responseStr -> rememberUpload(cacheKey, extractId(responseStr)));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        };
+        if (cachedId == null) {
+            return upload.get();
+        }
+
+        return sendAsync(request("files/" + cachedId).GET().build(), "file_info")
+                .handle((responseStr, error) -> error == null && isUsableFile(new JSONObject(responseStr)))
+                .thenCompose(usable -> {
+                    if (usable) {
+                        fileUploadCache.markVerified(cachedId);
+                        return CompletableFuture.completedFuture(cachedId);
+                    }
+                    fileUploadCache.remove(cacheKey);
+                    return upload.get();
+                });
+    }
+
+    private String uploadCacheKey(File file, String purpose) {
+        if (fileUploadCache == null) {
+            return null;
+        }
+        try {
+            return FileUploadCache.keyFor(file, purpose);
+        } catch (IOException e) {
+            System.out.println("Failed to hash file for upload cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String rememberUpload(String cacheKey, String fileId) {
+        if (cacheKey != null) {
+            fileUploadCache.put(cacheKey, fileId);
+            fileUploadCache.markVerified(fileId);
+        }
+        return fileId;
+    }
+
+    private static boolean isUsableFile(JSONObject fileInfo) {
+        if (fileInfo == null) {
+            return false;
+        }
+        String status = fileInfo.optString("status", "processed");
+        return !status.equals("error") && !status.equals("deleted");
+    }
+
+    private HttpRequest uploadFileRequest(File file, String purpose) throws IOException {
+        MultipartBodyPublisher multipart = new MultipartBodyPublisher()
+                .withField("purpose", purpose)
+                .withFile("file", file.toPath(), "application/octet-stream");
+
+        return request("files")
+                .header("Content-Type", multipart.contentType())
+                .POST(multipart.build(false))
+                .build();
+    }
+
     public JSONObject retrieveFile(String fileId) {
-        String url = "https://api.openai.com/v1/files/" + fileId;
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("GET");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("file_info", responseStr);
-                return new JSONObject(responseStr);
-            } catch (IOException e) {
-                handleErrorResponse(con);
+            String responseStr = send(request("files/" + fileId).GET().build(), "file_info");
+            if (responseStr == null) {
                 return null;
             }
+            return new JSONObject(responseStr);
         } catch (IOException e) {
             System.out.println("Failed to retrieve file: " + e.getMessage());
             return null;
@@ -297,17 +477,7 @@ public class OpenAiAssistantEngine {
      */
     public String createVectorStore(String name, List<String> fileIds, JSONObject chunkingStrategy,
             JSONObject expiresAfter, Map<String, String> metadata) {
-        String url = "https://api.openai.com/v1/vector_stores";
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-            con.setDoOutput(true);
-
             JSONObject body = new JSONObject();
             if (name != null) {
                 body.put("name", name);
@@ -325,25 +495,11 @@ public class OpenAiAssistantEngine {
                 body.put("metadata", metadata);
             }
 
-            try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream())) {
-                writer.write(body.toString());
-                writer.flush();
-            }
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("vector_store", responseStr);
-                JSONObject jsonResponse = new JSONObject(responseStr);
-                return jsonResponse.getString("id");
-            } catch (IOException e) {
-                handleErrorResponse(con);
+            String responseStr = send(postJson(assistantsRequest("vector_stores"), body).build(), "vector_store");
+            if (responseStr == null) {
                 return null;
             }
+            return extractId(responseStr);
         } catch (IOException | JSONException e) {
             System.out.println("Failed to create vector store: " + e.getMessage());
             return null;
@@ -351,17 +507,7 @@ public class OpenAiAssistantEngine {
     }
 
     public String modifyVectorStore(String vectorStoreId, JSONObject expiresAfter, Map<String, String> metadata, String name) {
-        String url = "https://api.openai.com/v1/vector_stores/" + vectorStoreId;
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-            con.setDoOutput(true);
-
             JSONObject body = new JSONObject();
             if (expiresAfter != null) {
                 body.put("expires_after", expiresAfter);
@@ -373,24 +519,7 @@ public class OpenAiAssistantEngine {
                 body.put("name", name);
             }
 
-            try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream())) {
-                writer.write(body.toString());
-                writer.flush();
-            }
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("vector_store_modify", responseStr);
-                return responseStr;
-            } catch (IOException e) {
-                handleErrorResponse(con);
-                return null;
-            }
+            return send(postJson(assistantsRequest("vector_stores/" + vectorStoreId), body).build(), "vector_store_modify");
         } catch (IOException e) {
             System.out.println("Failed to modify vector store: " + e.getMessage());
             return null;
@@ -403,17 +532,7 @@ public class OpenAiAssistantEngine {
     public String createAssistant(String model, String name, String description, String instructions,
             String reasoningEffort, List<String> toolNames, Map<String, String> metadata,
             Double temperature, Double topP, Map<String, String> toolResources) {
-        String url = "https://api.openai.com/v1/assistants";
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-            con.setDoOutput(true);
-
             JSONObject body = new JSONObject();
             body.put("model", model);
             if (name != null) {
@@ -450,25 +569,11 @@ public class OpenAiAssistantEngine {
                 body.put("tool_resources", new JSONObject(toolResources));
             }
 
-            try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream())) {
-                writer.write(body.toString());
-                writer.flush();
-            }
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("assistant", responseStr);
-                JSONObject jsonResponse = new JSONObject(responseStr);
-                return jsonResponse.getString("id");
-            } catch (IOException e) {
-                handleErrorResponse(con);
+            String responseStr = send(postJson(assistantsRequest("assistants"), body).build(), "assistant");
+            if (responseStr == null) {
                 return null;
             }
+            return extractId(responseStr);
         } catch (IOException | JSONException e) {
             System.out.println("Failed to create assistant: " + e.getMessage());
             return null;
@@ -476,29 +581,8 @@ public class OpenAiAssistantEngine {
     }
 
     public String retrieveAssistant(String assistantId) {
-        String url = "https://api.openai.com/v1/assistants/" + assistantId;
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("GET");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("assistant_retrieve", responseStr);
-                return responseStr;
-            } catch (IOException e) {
-                handleErrorResponse(con);
-                return null;
-            }
+            return send(assistantsRequest("assistants/" + assistantId).GET().build(), "assistant_retrieve");
         } catch (IOException e) {
             System.out.println("Failed to retrieve assistant: " + e.getMessage());
             return null;
@@ -509,17 +593,7 @@ public class OpenAiAssistantEngine {
             Map<String, String> metadata, String model, String name, String reasoningEffort,
             JSONObject responseFormat, Double temperature, Map<String, Object> toolResources,
             List<JSONObject> tools, Double topP) {
-        String url = "https://api.openai.com/v1/assistants/" + assistantId;
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-            con.setDoOutput(true);
-
             JSONObject body = new JSONObject();
             if (description != null) {
                 body.put("description", description);
@@ -555,24 +629,7 @@ public class OpenAiAssistantEngine {
                 body.put("top_p", topP);
             }
 
-            try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream())) {
-                writer.write(body.toString());
-                writer.flush();
-            }
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("assistant_update", responseStr);
-                return true;
-            } catch (IOException e) {
-                handleErrorResponse(con);
-                return false;
-            }
+            return send(postJson(assistantsRequest("assistants/" + assistantId), body).build(), "assistant_update") != null;
         } catch (IOException e) {
             System.out.println("Failed to update assistant: " + e.getMessage());
             return false;
@@ -580,41 +637,22 @@ public class OpenAiAssistantEngine {
     }
 
     public String listAssistants(String after, String before, int limit, String order) {
-        StringBuilder urlBuilder = new StringBuilder("https://api.openai.com/v1/assistants?");
+        StringBuilder pathBuilder = new StringBuilder("assistants?");
         if (after != null) {
-            urlBuilder.append("after=").append(after).append("&");
+            pathBuilder.append("after=").append(after).append("&");
         }
         if (before != null) {
-            urlBuilder.append("before=").append(before).append("&");
+            pathBuilder.append("before=").append(before).append("&");
         }
         if (limit > 0) {
-            urlBuilder.append("limit=").append(Math.min(limit, 100)).append("&");
+            pathBuilder.append("limit=").append(Math.min(limit, 100)).append("&");
         }
         if (order != null) {
-            urlBuilder.append("order=").append(order);
+            pathBuilder.append("order=").append(order);
         }
 
         try {
-            URL obj = new URL(urlBuilder.toString());
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("GET");
-            con.setRequestProperty("Authorization", "Bearer " + USER_API_KEY);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("assistants_list", responseStr);
-                return responseStr;
-            } catch (IOException e) {
-                handleErrorResponse(con);
-                return null;
-            }
+            return send(assistantsRequest(pathBuilder.toString()).GET().build(), "assistants_list");
         } catch (IOException e) {
             System.out.println("Failed to list assistants: " + e.getMessage());
             return null;
@@ -626,138 +664,105 @@ public class OpenAiAssistantEngine {
      */
     public String createThread(List<JSONObject> messages, Map<String, String> toolResources,
             Map<String, String> metadata) {
-        String url = "https://api.openai.com/v1/threads";
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-            con.setDoOutput(true);
-
-            JSONObject body = new JSONObject();
-            if (messages != null && !messages.isEmpty()) {
-                body.put("messages", messages);
-            }
-            if (toolResources != null && !toolResources.isEmpty()) {
-                body.put("tool_resources", new JSONObject(toolResources));
-            }
-            if (metadata != null && !metadata.isEmpty()) {
-                body.put("metadata", metadata);
-            }
-
-            try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream())) {
-                writer.write(body.toString());
-                writer.flush();
-            }
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("thread", responseStr);
-                JSONObject jsonResponse = new JSONObject(responseStr);
-                return jsonResponse.getString("id");
-            } catch (IOException e) {
-                handleErrorResponse(con);
+            String responseStr = send(createThreadRequest(messages, toolResources, metadata), "thread");
+            if (responseStr == null) {
                 return null;
             }
+            return extractId(responseStr);
         } catch (IOException | JSONException e) {
             System.out.println("Failed to create thread: " + e.getMessage());
             return null;
         }
     }
 
-    public String addMessageToThread(String threadId, String content) {
-        String url = "https://api.openai.com/v1/threads/" + threadId + "/messages";
-        String apiKey = USER_API_KEY;
-        try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-            con.setDoOutput(true);
-
-            JSONObject body = new JSONObject();
-            body.put("role", "user");
-            body.put("content", content);
+    public CompletableFuture<String> createThreadAsync(List<JSONObject> messages, Map<String, String> toolResources,
+            Map<String, String> metadata) {
+        return sendAsync(createThreadRequest(messages, toolResources, metadata), "thread")
+                .thenApply(OpenAiAssistantEngine::extractId);
+    }
 
-            try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream())) {
-                writer.write(body.toString());
-                writer.flush();
-            }
+    private HttpRequest createThreadRequest(List<JSONObject> messages, Map<String, String> toolResources,
+            Map<String, String> metadata) {
+        JSONObject body = new JSONObject();
+        if (messages != null && !messages.isEmpty()) {
+            body.put("messages", messages);
+        }
+        if (toolResources != null && !toolResources.isEmpty()) {
+            body.put("tool_resources", new JSONObject(toolResources));
+        }
+        if (metadata != null && !metadata.isEmpty()) {
+            body.put("metadata", metadata);
+        }
+        return postJson(assistantsRequest("threads"), body).build();
+    }
 
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("message_add", responseStr);
-                JSONObject jsonResponse = new JSONObject(responseStr);
-                return jsonResponse.getString("id");
-            } catch (IOException e) {
-                handleErrorResponse(con);
+    public String addMessageToThread(String threadId, String content) {
+        try {
+            String responseStr = send(addMessageRequest(threadId, content), "message_add");
+            if (responseStr == null) {
                 return null;
             }
+            return extractId(responseStr);
         } catch (IOException e) {
             System.out.println("Failed to add message: " + e.getMessage());
             return null;
         }
     }
 
-    public List<String> listMessages(String threadId, String runId) {
-        StringBuilder urlBuilder = new StringBuilder("https://api.openai.com/v1/threads/" + threadId + "/messages");
-        if (runId != null) {
-            urlBuilder.append("?run_id=").append(runId);
-        }
+    public CompletableFuture<String> addMessageToThreadAsync(String threadId, String content) {
+        return sendAsync(addMessageRequest(threadId, content), "message_add")
+                .thenApply(OpenAiAssistantEngine::extractId);
+    }
 
+    private HttpRequest addMessageRequest(String threadId, String content) {
+        JSONObject body = new JSONObject();
+        body.put("role", "user");
+        body.put("content", content);
+        return postJson(assistantsRequest("threads/" + threadId + "/messages"), body).build();
+    }
+
+    public List<String> listMessages(String threadId, String runId) {
         try {
-            URL obj = new URL(urlBuilder.toString());
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("GET");
-            con.setRequestProperty("Authorization", "Bearer " + USER_API_KEY);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("messages", responseStr);
-                JSONObject jsonResponse = new JSONObject(responseStr);
-                List<String> messages = new ArrayList<>();
-                for (Object messageObj : jsonResponse.getJSONArray("data")) {
-                    JSONObject message = (JSONObject) messageObj;
-                    for (Object contentObj : message.getJSONArray("content")) {
-                        JSONObject content = (JSONObject) contentObj;
-                        if (content.getString("type").equals("text")) {
-                            messages.add(content.getJSONObject("text").getString("value"));
-                        }
-                    }
-                }
-                return messages;
-            } catch (IOException e) {
-                handleErrorResponse(con);
+            String responseStr = send(listMessagesRequest(threadId, runId), "messages");
+            if (responseStr == null) {
                 return null;
             }
+            return parseMessages(responseStr);
         } catch (IOException e) {
             System.out.println("Failed to list messages: " + e.getMessage());
             return null;
         }
     }
 
+    public CompletableFuture<List<String>> listMessagesAsync(String threadId, String runId) {
+        return sendAsync(listMessagesRequest(threadId, runId), "messages")
+                .thenApply(OpenAiAssistantEngine::parseMessages);
+    }
+
+    private HttpRequest listMessagesRequest(String threadId, String runId) {
+        StringBuilder pathBuilder = new StringBuilder("threads/" + threadId + "/messages");
+        if (runId != null) {
+            pathBuilder.append("?run_id=").append(runId);
+        }
+        return assistantsRequest(pathBuilder.toString()).GET().build();
+    }
+
+    private static List<String> parseMessages(String responseStr) {
+        JSONObject jsonResponse = new JSONObject(responseStr);
+        List<String> messages = new ArrayList<>();
+        for (Object messageObj : jsonResponse.getJSONArray("data")) {
+            JSONObject message = (JSONObject) messageObj;
+            for (Object contentObj : message.getJSONArray("content")) {
+                JSONObject content = (JSONObject) contentObj;
+                if (content.getString("type").equals("text")) {
+                    messages.add(content.getJSONObject("text").getString("value"));
+                }
+            }
+        }
+        return messages;
+    }
+
     /*
      * Run Management Methods
      */
@@ -767,249 +772,487 @@ public class OpenAiAssistantEngine {
             Boolean stream, Integer maxPromptTokens, Integer maxCompletionTokens,
             JSONObject truncationStrategy, JSONObject toolChoice, Boolean parallelToolCalls,
             JSONObject responseFormat) {
-        String url = "https://api.openai.com/v1/threads/" + threadId + "/runs";
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-            con.setDoOutput(true);
-
-            JSONObject body = new JSONObject();
-            body.put("assistant_id", assistantId);
-            if (model != null) {
-                body.put("model", model);
-            }
-            if (reasoningEffort != null) {
-                body.put("reasoning_effort", reasoningEffort);
-            }
-            if (instructions != null) {
-                body.put("instructions", instructions);
-            }
-            if (additionalInstructions != null) {
-                body.put("additional_instructions", additionalInstructions);
-            }
-            if (additionalMessages != null && !additionalMessages.isEmpty()) {
-                body.put("additional_messages", additionalMessages);
-            }
-            if (tools != null && !tools.isEmpty()) {
-                body.put("tools", tools);
-            }
-            if (metadata != null && !metadata.isEmpty()) {
-                body.put("metadata", metadata);
-            }
-            if (temperature != null) {
-                body.put("temperature", temperature);
-            }
-            if (topP != null) {
-                body.put("top_p", topP);
-            }
-            if (stream != null) {
-                body.put("stream", stream);
+            String responseStr = send(createRunRequest(threadId, assistantId, model, reasoningEffort, instructions,
+                additionalInstructions, additionalMessages, tools, metadata, temperature, topP, stream,
+                maxPromptTokens, maxCompletionTokens, truncationStrategy, toolChoice, parallelToolCalls,
+                responseFormat), "run");
+            if (responseStr == null) {
+                return null;
             }
-            if (maxPromptTokens != null) {
-                body.put("max_prompt_tokens", maxPromptTokens);
+            return extractId(responseStr);
+        } catch (IOException | JSONException e) {
+            System.out.println("Failed to create run: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public CompletableFuture<String> createRunAsync(String threadId, String assistantId, String model, String reasoningEffort,
+            String instructions, String additionalInstructions, List<JSONObject> additionalMessages,
+            List<JSONObject> tools, Map<String, String> metadata, Double temperature, Double topP,
+            Boolean stream, Integer maxPromptTokens, Integer maxCompletionTokens,
+            JSONObject truncationStrategy, JSONObject toolChoice, Boolean parallelToolCalls,
+            JSONObject responseFormat) {
+        return sendAsync(createRunRequest(threadId, assistantId, model, reasoningEffort, instructions,
+                additionalInstructions, additionalMessages, tools, metadata, temperature, topP, stream,
+                maxPromptTokens, maxCompletionTokens, truncationStrategy, toolChoice, parallelToolCalls,
+                responseFormat), "run")
+                .thenApply(OpenAiAssistantEngine::extractId);
+    }
+
+    private HttpRequest createRunRequest(String threadId, String assistantId, String model, String reasoningEffort,
+            String instructions, String additionalInstructions, List<JSONObject> additionalMessages,
+            List<JSONObject> tools, Map<String, String> metadata, Double temperature, Double topP,
+            Boolean stream, Integer maxPromptTokens, Integer maxCompletionTokens,
+            JSONObject truncationStrategy, JSONObject toolChoice, Boolean parallelToolCalls,
+            JSONObject responseFormat) {
+        JSONObject body = new JSONObject();
+        body.put("assistant_id", assistantId);
+        if (model != null) {
+            body.put("model", model);
+        }
+        if (reasoningEffort != null) {
+            body.put("reasoning_effort", reasoningEffort);
+        }
+        if (instructions != null) {
+            body.put("instructions", instructions);
+        }
+        if (additionalInstructions != null) {
+            body.put("additional_instructions", additionalInstructions);
+        }
+        if (additionalMessages != null && !additionalMessages.isEmpty()) {
+            body.put("additional_messages", additionalMessages);
+        }
+        if (tools != null && !tools.isEmpty()) {
+            body.put("tools", tools);
+        }
+        if (metadata != null && !metadata.isEmpty()) {
+            body.put("metadata", metadata);
+        }
+        if (temperature != null) {
+            body.put("temperature", temperature);
+        }
+        if (topP != null) {
+            body.put("top_p", topP);
+        }
+        if (stream != null) {
+            body.put("stream", stream);
+        }
+        if (maxPromptTokens != null) {
+            body.put("max_prompt_tokens", maxPromptTokens);
+        }
+        if (maxCompletionTokens != null) {
+            body.put("max_completion_tokens", maxCompletionTokens);
+        }
+        if (truncationStrategy != null) {
+            body.put("truncation_strategy", truncationStrategy);
+        }
+        if (toolChoice != null) {
+            body.put("tool_choice", toolChoice);
+        }
+        if (parallelToolCalls != null) {
+            body.put("parallel_tool_calls", parallelToolCalls);
+        }
+        if (responseFormat != null) {
+            body.put("response_format", responseFormat);
+        }
+
+        return postJson(assistantsRequest("threads/" + threadId + "/runs"), body).build();
+    }
+
+    /**
+     * Creates a run in streaming mode. The response is parsed as server-sent
+     * events while it arrives: text deltas and status changes are pushed to
+     * the listener immediately and the returned future completes with the
+     * accumulated {@link StreamedRun} once the stream ends, so neither status
+     * polling nor a follow-up {@link #listMessages} call is needed.
+     *
+     * @param threadId The thread to run
+     * @param assistantId The assistant to run it with
+     * @param additionalInstructions Appended to the assistant's instructions
+     * for this run only, may be null
+     * @param additionalMessages Messages added to the thread before the run,
+     * may be null
+     * @param tools Overrides the assistant's tools for this run, may be null
+     * @param listener Receives events as they arrive, may be null
+     * @return A future completing with the final run state
+     */
+    public CompletableFuture<StreamedRun> createRunStreamAsync(String threadId, String assistantId,
+            String additionalInstructions, List<JSONObject> additionalMessages, List<JSONObject> tools,
+            RunStreamListener listener) {
+        return createRunStreamAsync(threadId, assistantId, additionalInstructions, additionalMessages, tools,
+                null, listener);
+    }
+
+    /**
+     * Streams a run that may call local function tools. Whenever the run
+     * stops with {@code requires_action}, the requested calls are executed in
+     * parallel by {@code functions} and their outputs submitted on a new
+     * stream that continues into the same {@link StreamedRun}, until the run
+     * finishes or eight rounds of tool calls have been answered.
+     *
+     * @param tools Tool definitions for this run; include
+     * {@link FunctionToolRegistry#getDefinitions()} along with any built-in
+     * tools the run should keep, may be null
+     * @param functions Executes the function calls, may be null
+     */
+    public CompletableFuture<StreamedRun> createRunStreamAsync(String threadId, String assistantId,
+            String additionalInstructions, List<JSONObject> additionalMessages, List<JSONObject> tools,
+            FunctionToolRegistry functions, RunStreamListener listener) {
+        return streamRun(threadId, assistantId, additionalInstructions, additionalMessages, tools, functions,
+                new StreamedRun(listener));
+    }
+
+    private CompletableFuture<StreamedRun> streamRun(String threadId, String assistantId,
+            String additionalInstructions, List<JSONObject> additionalMessages, List<JSONObject> tools,
+            FunctionToolRegistry functions, StreamedRun streamedRun) {
+        HttpRequest request = createRunRequest(threadId, assistantId, null, null, null, additionalInstructions,
+                additionalMessages, tools, null, null, null, true, null, null, null, null, null, null);
+        return streamRun(request, streamedRun)
+                .thenCompose(run -> continueWithTools(threadId, run, functions, 0));
+    }
+
+    private CompletableFuture<StreamedRun> continueWithTools(String threadId, StreamedRun streamedRun,
+            FunctionToolRegistry functions, int round) {
+        JSONArray toolCalls = FunctionToolRegistry.pendingToolCalls(streamedRun.getRun());
+        if (functions == null || toolCalls == null || round >= MAX_TOOL_ROUNDS || streamedRun.isCancelled()) {
+            return CompletableFuture.completedFuture(streamedRun);
+        }
+        return functions.executeAsync(toolCalls)
+                .thenCompose(outputs -> streamRun(
+                submitToolOutputsRequest(threadId, streamedRun.getRunId(), outputs, true), streamedRun))
+                .thenCompose(run -> continueWithTools(threadId, run, functions, round + 1));
+    }
+
+    /**
+     * Blocking form of {@link #createRunStreamAsync}.
+     *
+     * @return The final run state, or null if the run could not be streamed
+     * or did not finish within the timeout
+     */
+    public StreamedRun createRunStream(String threadId, String assistantId, String additionalInstructions,
+            List<JSONObject> additionalMessages, List<JSONObject> tools, RunStreamListener listener,
+            int timeoutSeconds) {
+        return createRunStream(threadId, assistantId, additionalInstructions, additionalMessages, tools, null,
+                listener, timeoutSeconds);
+    }
+
+    /**
+     * Blocking form of {@link #createRunStreamAsync} with function tools. The
+     * timeout covers the whole run, including every round of tool calls. A
+     * run that times out has its stream closed and is cancelled on the
+     * server, so it stops using tokens.
+     */
+    public StreamedRun createRunStream(String threadId, String assistantId, String additionalInstructions,
+            List<JSONObject> additionalMessages, List<JSONObject> tools, FunctionToolRegistry functions,
+            RunStreamListener listener, int timeoutSeconds) {
+        StreamedRun run = new StreamedRun(listener);
+        CompletableFuture<StreamedRun> future = streamRun(threadId, assistantId,
+                additionalInstructions, additionalMessages, tools, functions, run);
+        try {
+            StreamedRun streamedRun = future.get(timeoutSeconds, TimeUnit.SECONDS);
+            if (!streamedRun.isCompleted()) {
+                System.out.println("Run ended with status: " + streamedRun.getStatus());
+                if (streamedRun.getLastError() != null) {
+                    System.out.println("Error: " + streamedRun.getLastError().toString());
+                }
             }
-            if (maxCompletionTokens != null) {
-                body.put("max_completion_tokens", maxCompletionTokens);
+            return streamedRun;
+        } catch (TimeoutException e) {
+            run.cancelStream();
+            future.cancel(true);
+            System.out.println("Run timed out after " + timeoutSeconds + " seconds");
+            if (run.getRunId() != null) {
+                cancelRunAsync(threadId, run.getRunId());
             }
-            if (truncationStrategy != null) {
-                body.put("truncation_strategy", truncationStrategy);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Streaming interrupted: " + e.getMessage());
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OpenAiApiException) {
+                System.out.println(cause.getMessage());
+            } else {
+                System.out.println("Failed to stream run: " + cause.getMessage());
             }
-            if (toolChoice != null) {
-                body.put("tool_choice", toolChoice);
+            return null;
+        }
+    }
+
+    private CompletableFuture<StreamedRun> streamRun(HttpRequest request, StreamedRun streamedRun) {
+        HttpResponse.BodyHandler<String> handler = responseInfo -> {
+            if (responseInfo.statusCode() < 200 || responseInfo.statusCode() >= 300) {
+                return HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
             }
-            if (parallelToolCalls != null) {
-                body.put("parallel_tool_calls", parallelToolCalls);
+            SseLineSubscriber subscriber = new SseLineSubscriber(streamedRun, new ServerSentEventParser(streamedRun::accept));
+            return HttpResponse.BodySubscribers.<SseLineSubscriber, String>fromLineSubscriber(
+                    subscriber, s -> null, StandardCharsets.UTF_8, null);
+        };
+
+        return requestGovernor.send(request, handler).thenApply(response -> {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new OpenAiApiException(response.statusCode(),
+                        describeError(response.statusCode(), response.body()), response.body());
             }
-            if (responseFormat != null) {
-                body.put("response_format", responseFormat);
+            if (streamedRun.getRun() != null) {
+                logResponse("run_stream", streamedRun.getRun().toString());
             }
+            return streamedRun;
+        });
+    }
 
-            try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream())) {
-                writer.write(body.toString());
-                writer.flush();
-            }
+    /**
+     * Feeds response lines into an SSE parser as the HTTP client delivers
+     * them.
+     */
+    private static final class SseLineSubscriber implements Flow.Subscriber<String> {
 
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("run", responseStr);
-                JSONObject jsonResponse = new JSONObject(responseStr);
-                return jsonResponse.getString("id");
-            } catch (IOException e) {
-                handleErrorResponse(con);
-                return null;
+        private final StreamedRun streamedRun;
+        private final ServerSentEventParser parser;
+
+        SseLineSubscriber(StreamedRun streamedRun, ServerSentEventParser parser) {
+            this.streamedRun = streamedRun;
+            this.parser = parser;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            streamedRun.attach(subscription);
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!streamedRun.isCancelled()) {
+                parser.feed(line);
             }
-        } catch (IOException | JSONException e) {
-            System.out.println("Failed to create run: " + e.getMessage());
-            return null;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // The failure is reported through the response future
+        }
+
+        @Override
+        public void onComplete() {
+            parser.finish();
         }
     }
 
     public String retrieveRun(String threadId, String runId) {
-        String url = "https://api.openai.com/v1/threads/" + threadId + "/runs/" + runId;
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("GET");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("run_status", responseStr);
-                return responseStr;
-            } catch (IOException e) {
-                handleErrorResponse(con);
-                return null;
-            }
+            return send(retrieveRunRequest(threadId, runId), "run_status");
         } catch (IOException e) {
             System.out.println("Failed to retrieve run: " + e.getMessage());
             return null;
         }
     }
 
+    public CompletableFuture<JSONObject> retrieveRunAsync(String threadId, String runId) {
+        return sendAsync(retrieveRunRequest(threadId, runId), "run_status")
+                .thenApply(JSONObject::new);
+    }
+
+    private HttpRequest retrieveRunRequest(String threadId, String runId) {
+        return assistantsRequest("threads/" + threadId + "/runs/" + runId).GET().build();
+    }
+
     public String retrieveRunStatus(String threadId) {
-        String url = "https://api.openai.com/v1/threads/" + threadId + "/runs";
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("GET");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                JSONObject jsonResponse = new JSONObject(responseStr);
-                if (jsonResponse.getJSONArray("data").length() > 0) {
-                    return jsonResponse.getJSONArray("data").getJSONObject(0).toString();
-                }
-                return null;
-            } catch (IOException e) {
-                handleErrorResponse(con);
+            String responseStr = send(assistantsRequest("threads/" + threadId + "/runs").GET().build(), null);
+            if (responseStr == null) {
                 return null;
             }
+            JSONObject jsonResponse = new JSONObject(responseStr);
+            if (jsonResponse.getJSONArray("data").length() > 0) {
+                return jsonResponse.getJSONArray("data").getJSONObject(0).toString();
+            }
+            return null;
         } catch (IOException e) {
             System.out.println("Failed to retrieve run status: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Waits for a run to finish by polling its status. Polls start quickly and
+     * back off, based on {@link PollingStrategy#adaptive} with the given
+     * interval as the typical delay.
+     *
+     * @return True if the run completed successfully
+     */
     public boolean waitForRunCompletion(String threadId, String runId, int timeoutSeconds, int pollIntervalMiliSeconds) {
-        long startTime = System.currentTimeMillis();
-        long timeoutMillis = timeoutSeconds * 1000L;
+        return waitForRunCompletion(threadId, runId, timeoutSeconds, PollingStrategy.adaptive(pollIntervalMiliSeconds));
+    }
 
-        while (System.currentTimeMillis() - startTime < timeoutMillis) {
-            String runResponse = retrieveRun(threadId, runId);
-            if (runResponse == null) {
-                System.out.println("Failed to retrieve run status");
-                return false;
-            }
+    public boolean waitForRunCompletion(String threadId, String runId, int timeoutSeconds, PollingStrategy strategy) {
+        return waitForRunCompletion(threadId, runId, timeoutSeconds, strategy, null);
+    }
 
-            JSONObject jsonResponse = new JSONObject(runResponse);
+    /**
+     * Waits for a run to finish, answering any function calls it makes along
+     * the way with {@code functions}.
+     *
+     * @return True if the run completed successfully
+     */
+    public boolean waitForRunCompletion(String threadId, String runId, int timeoutSeconds, PollingStrategy strategy,
+            FunctionToolRegistry functions) {
+        try {
+            JSONObject jsonResponse = awaitRunAsync(threadId, runId, strategy, Duration.ofSeconds(timeoutSeconds),
+                    functions).get();
             String status = jsonResponse.getString("status");
-
             if (status.equals("completed")) {
                 return true;
-            } else if (status.equals("failed") || status.equals("cancelled") || status.equals("expired")) {
-                System.out.println("Run ended with status: " + status);
-                if (jsonResponse.has("last_error")) {
-                    System.out.println("Error: " + jsonResponse.getJSONObject("last_error").toString());
-                }
-                return false;
             }
-
-            try {
-                Thread.sleep(pollIntervalMiliSeconds);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                System.out.println("Polling interrupted: " + e.getMessage());
-                return false;
+            System.out.println("Run ended with status: " + status);
+            if (jsonResponse.has("last_error") && !jsonResponse.isNull("last_error")) {
+                System.out.println("Error: " + jsonResponse.getJSONObject("last_error").toString());
             }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Polling interrupted: " + e.getMessage());
+            return false;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                System.out.println("Run timed out after " + timeoutSeconds + " seconds");
+            } else if (cause instanceof OpenAiApiException) {
+                System.out.println(cause.getMessage());
+                System.out.println("Failed to retrieve run status");
+            } else {
+                System.out.println("Failed to retrieve run status: " + cause.getMessage());
+            }
+            return false;
         }
+    }
+
+    /**
+     * Polls a run on the engine's shared scheduler without blocking the
+     * caller.
+     *
+     * @return A future completing with the run object once it reaches a
+     * terminal status, or exceptionally with a
+     * {@link java.util.concurrent.TimeoutException} after the timeout
+     */
+    public CompletableFuture<JSONObject> awaitRunAsync(String threadId, String runId, PollingStrategy strategy, Duration timeout) {
+        return runPoller.await(threadId, runId, strategy, timeout);
+    }
+
+    /**
+     * Polls a run like {@link #awaitRunAsync(String, String, PollingStrategy,
+     * Duration)}, but when the run stops with {@code requires_action} the
+     * requested function calls are executed in parallel, their outputs are
+     * submitted and polling resumes within the same overall timeout.
+     *
+     * @param functions Executes the function calls; when null the future
+     * completes with the {@code requires_action} run instead
+     */
+    public CompletableFuture<JSONObject> awaitRunAsync(String threadId, String runId, PollingStrategy strategy,
+            Duration timeout, FunctionToolRegistry functions) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        return awaitWithTools(threadId, runId, strategy, deadline, functions, 0);
+    }
 
-        System.out.println("Run timed out after " + timeoutSeconds + " seconds");
-        return false;
+    private CompletableFuture<JSONObject> awaitWithTools(String threadId, String runId, PollingStrategy strategy,
+            long deadline, FunctionToolRegistry functions, int round) {
+        Duration remaining = Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+        return runPoller.await(threadId, runId, strategy, remaining).thenCompose(run -> {
+            JSONArray toolCalls = FunctionToolRegistry.pendingToolCalls(run);
+            if (functions == null || toolCalls == null || round >= MAX_TOOL_ROUNDS) {
+                return CompletableFuture.completedFuture(run);
+            }
+            return functions.executeAsync(toolCalls)
+                    .thenCompose(outputs -> submitToolOutputsAsync(threadId, runId, outputs))
+                    .thenCompose(submitted -> awaitWithTools(threadId, runId, strategy, deadline, functions, round + 1));
+        });
+    }
+
+    /**
+     * Answers a run's {@code requires_action} with the outputs of its tool
+     * calls.
+     *
+     * @param toolOutputs One {@code {"tool_call_id", "output"}} object per
+     * requested call
+     * @return The run object as JSON, or null if the outputs were rejected
+     */
+    public String submitToolOutputs(String threadId, String runId, List<JSONObject> toolOutputs) {
+        try {
+            return send(submitToolOutputsRequest(threadId, runId, toolOutputs, false), "run_tool_outputs");
+        } catch (IOException e) {
+            System.out.println("Failed to submit tool outputs: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public CompletableFuture<JSONObject> submitToolOutputsAsync(String threadId, String runId, List<JSONObject> toolOutputs) {
+        return sendAsync(submitToolOutputsRequest(threadId, runId, toolOutputs, false), "run_tool_outputs")
+                .thenApply(JSONObject::new);
+    }
+
+    private HttpRequest submitToolOutputsRequest(String threadId, String runId, List<JSONObject> toolOutputs,
+            boolean stream) {
+        JSONObject body = new JSONObject();
+        body.put("tool_outputs", toolOutputs);
+        if (stream) {
+            body.put("stream", true);
+        }
+        return postJson(assistantsRequest("threads/" + threadId + "/runs/" + runId + "/submit_tool_outputs"), body)
+                .build();
     }
 
     public String cancelRun(String threadId, String runId) {
-        String url = "https://api.openai.com/v1/threads/" + threadId + "/runs/" + runId + "/cancel";
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                String responseStr = response.toString();
-                logResponse("run_cancel", responseStr);
-                return responseStr;
-            } catch (IOException e) {
-                handleErrorResponse(con);
-                return null;
-            }
+            return send(cancelRunRequest(threadId, runId), "run_cancel");
         } catch (IOException e) {
             System.out.println("Failed to cancel run: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Asks the server to cancel a run without waiting for the answer; a
+     * failure is only reported.
+     */
+    public CompletableFuture<Void> cancelRunAsync(String threadId, String runId) {
+        return sendAsync(cancelRunRequest(threadId, runId), "run_cancel")
+                .handle((responseStr, error) -> {
+                    if (error != null) {
+                        System.out.println("Failed to cancel run " + runId + ": " + error.getMessage());
+                    }
+                    return null;
+                });
+    }
+
+    private HttpRequest cancelRunRequest(String threadId, String runId) {
+        return assistantsRequest("threads/" + threadId + "/runs/" + runId + "/cancel")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
     /*
      * Resource Management Methods
      */
     public boolean deleteResource(String resourceType, String resourceId) {
-        String url = "https://api.openai.com/v1/" + resourceType + "/" + resourceId;
-        String apiKey = USER_API_KEY;
         try {
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-            con.setRequestMethod("DELETE");
-            con.setRequestProperty("Authorization", "Bearer " + apiKey);
-            con.setRequestProperty("Content-Type", "application/json");
-            if (!resourceType.equals("files")) {
-                con.setRequestProperty("OpenAI-Beta", "assistants=v2");
-            }
-
-            int responseCode = con.getResponseCode();
-            if (responseCode >= 200 && responseCode < 300) {
-                return true;
-            } else {
-                handleErrorResponse(con);
-                return false;
-            }
+            return send(deleteResourceRequest(resourceType, resourceId), null) != null;
         } catch (IOException e) {
             System.out.println("Failed to delete " + resourceType + ": " + e.getMessage());
             return false;
         }
     }
+
+    public CompletableFuture<Void> deleteResourceAsync(String resourceType, String resourceId) {
+        return sendAsync(deleteResourceRequest(resourceType, resourceId), null)
+                .thenApply(responseStr -> null);
+    }
+
+    private HttpRequest deleteResourceRequest(String resourceType, String resourceId) {
+        HttpRequest.Builder builder = resourceType.equals("files")
+                ? request(resourceType + "/" + resourceId)
+                : assistantsRequest(resourceType + "/" + resourceId);
+        return builder.DELETE().build();
+    }
 }
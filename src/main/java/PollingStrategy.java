@@ -0,0 +1,77 @@
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how long to wait between run status polls. Delays start short so
+ * quick runs are noticed almost immediately, grow geometrically so slow runs
+ * are not hammered, are capped at a maximum and carry random jitter so many
+ * runs started together do not poll in lockstep.
+ */
+public class PollingStrategy {
+
+    private final long initialDelayMillis;
+    private final double multiplier;
+    private final long maxDelayMillis;
+    private final double jitter;
+
+    /**
+     * @param initialDelayMillis Delay before the first poll
+     * @param multiplier Growth factor applied after every poll (1.0 for a
+     * fixed interval)
+     * @param maxDelayMillis Upper bound for any single delay
+     * @param jitter Fraction of the delay to randomise, between 0 and 1
+     */
+    public PollingStrategy(long initialDelayMillis, double multiplier, long maxDelayMillis, double jitter) {
+        if (initialDelayMillis < 0 || maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("Delays must satisfy 0 <= initial <= max");
+        }
+        if (multiplier < 1.0) {
+            throw new IllegalArgumentException("Multiplier must be at least 1.0");
+        }
+        if (jitter < 0.0 || jitter > 1.0) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1");
+        }
+        this.initialDelayMillis = initialDelayMillis;
+        this.multiplier = multiplier;
+        this.maxDelayMillis = maxDelayMillis;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Polls at the same interval every time, matching the old sleep loop.
+     */
+    public static PollingStrategy fixed(long intervalMillis) {
+        return new PollingStrategy(intervalMillis, 1.0, intervalMillis, 0.0);
+    }
+
+    /**
+     * Starts at a quarter of the typical interval and backs off to four times
+     * it, so a 1000 ms setting polls at roughly 250, 375, 560 ms ... up to 4 s.
+     */
+    public static PollingStrategy adaptive(long typicalIntervalMillis) {
+        long interval = Math.max(1, typicalIntervalMillis);
+        return new PollingStrategy(Math.max(1, interval / 4), 1.5, interval * 4, 0.2);
+    }
+
+    /**
+     * @param attempt Zero-based number of polls already made
+     * @return Milliseconds to wait before the next poll
+     */
+    public long delayMillis(int attempt) {
+        double base = initialDelayMillis * Math.pow(multiplier, Math.max(0, attempt));
+        long delay = (long) Math.min(base, maxDelayMillis);
+        if (jitter > 0 && delay > 0) {
+            long spread = (long) (delay * jitter);
+            delay += ThreadLocalRandom.current().nextLong(-spread, spread + 1);
+        }
+        return Math.max(0, Math.min(delay, maxDelayMillis));
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+}
@@ -0,0 +1,331 @@
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Course dependency graph built from the prereq, and_prereq, or_prereq and
+ * coreq tables. Nodes are the dense IDs of the database's
+ * {@link CourseKeyIndex} and the transitive closures are precomputed as
+ * bitsets when the graph is built, so "what do I need before X" and "what does
+ * X unlock" are answered from ready-made lists.
+ *
+ * A course's {@code prereq} and {@code and_prereq} rows are all required; its
+ * {@code or_prereq} rows form one group of which any single course is enough.
+ * Co-requisites may be taken in the same term and are not followed when
+ * computing closures.
+ */
+public class PrerequisiteGraph {
+
+    /**
+     * Result of checking whether a course can be taken given completed
+     * courses. {@code missingOneOf} lists the alternatives when none of the
+     * course's or_prereq options has been completed.
+     */
+    public record Eligibility(String courseId, List<String> missingRequired, List<String> missingOneOf,
+            List<String> corequisites) {
+
+        public boolean isEligible() {
+            return missingRequired.isEmpty() && missingOneOf.isEmpty();
+        }
+    }
+
+    private final long version;
+    private final CourseKeyIndex keys;
+
+    private final int[][] required;
+    private final int[][] oneOf;
+    private final int[][] corequisites;
+    private final int[][] unlocks;
+
+    private final BitSet[] requiredClosure;
+    private final BitSet[] anyClosure;
+    private final List<List<String>> requiredBefore;
+    private final List<List<String>> anyBefore;
+    private final List<List<String>> unlockedLater;
+
+    public PrerequisiteGraph(AcademicDatabase database) {
+        this.version = database.getVersion();
+        this.keys = database.getCourseKeys();
+        int n = keys.size();
+
+        List<Set<Integer>> requiredEdges = edges(n);
+        List<Set<Integer>> oneOfEdges = edges(n);
+        List<Set<Integer>> coreqEdges = edges(n);
+        List<Set<Integer>> unlockEdges = edges(n);
+        for (AcademicDatabase.RequisiteKind kind : AcademicDatabase.RequisiteKind.values()) {
+            for (AcademicDatabase.Requisite requisite : database.getRequisites(kind)) {
+                int course = keys.idOf(requisite.courseId());
+                int needed = keys.idOf(requisite.requiredId());
+                if (course < 0 || needed < 0 || course == needed) {
+                    continue;
+                }
+                switch (kind) {
+                    case PREREQ, AND -> requiredEdges.get(course).add(needed);
+                    case OR -> oneOfEdges.get(course).add(needed);
+                    case COREQ -> coreqEdges.get(course).add(needed);
+                }
+                if (kind != AcademicDatabase.RequisiteKind.COREQ) {
+                    unlockEdges.get(needed).add(course);
+                }
+            }
+        }
+        this.required = toArrays(requiredEdges);
+        this.oneOf = toArrays(oneOfEdges);
+        this.corequisites = toArrays(coreqEdges);
+        this.unlocks = toArrays(unlockEdges);
+
+        int[][] any = new int[n][];
+        for (int i = 0; i < n; i++) {
+            any[i] = concat(required[i], oneOf[i]);
+        }
+        this.requiredClosure = closure(required);
+        this.anyClosure = closure(any);
+
+        BitSet[] reverse = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            reverse[i] = new BitSet(n);
+        }
+        for (int course = 0; course < n; course++) {
+            for (int needed = anyClosure[course].nextSetBit(0); needed >= 0; needed = anyClosure[course].nextSetBit(needed + 1)) {
+                reverse[needed].set(course);
+            }
+        }
+        this.requiredBefore = new ArrayList<>(n);
+        this.anyBefore = new ArrayList<>(n);
+        this.unlockedLater = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            requiredBefore.add(names(requiredClosure[i]));
+            anyBefore.add(names(anyClosure[i]));
+            unlockedLater.add(names(reverse[i]));
+        }
+    }
+
+    /**
+     * @return Version of the database the graph was built from
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean contains(String courseId) {
+        return keys.contains(courseId);
+    }
+
+    /**
+     * @return Courses that must all be completed directly before this one
+     */
+    public List<String> getRequired(String courseId) {
+        return names(required, courseId);
+    }
+
+    /**
+     * @return Alternatives of which any one must be completed first
+     */
+    public List<String> getOneOf(String courseId) {
+        return names(oneOf, courseId);
+    }
+
+    public List<String> getCorequisites(String courseId) {
+        return names(corequisites, courseId);
+    }
+
+    /**
+     * @return Courses that list this one directly as a prerequisite
+     */
+    public List<String> getUnlocks(String courseId) {
+        return names(unlocks, courseId);
+    }
+
+    /**
+     * @return Every course that must be completed, directly or through a
+     * chain of required prerequisites, before this one
+     */
+    public List<String> getRequiredBefore(String courseId) {
+        int index = keys.idOf(courseId);
+        return index < 0 ? List.of() : requiredBefore.get(index);
+    }
+
+    /**
+     * @return Every course that appears anywhere below this one, including
+     * or_prereq alternatives and their own prerequisites
+     */
+    public List<String> getAllPrerequisites(String courseId) {
+        int index = keys.idOf(courseId);
+        return index < 0 ? List.of() : anyBefore.get(index);
+    }
+
+    /**
+     * @return Every course this one leads to, directly or transitively
+     */
+    public List<String> getEventuallyUnlocks(String courseId) {
+        int index = keys.idOf(courseId);
+        return index < 0 ? List.of() : unlockedLater.get(index);
+    }
+
+    /**
+     * @return True if {@code prerequisite} must be completed at some point
+     * before {@code courseId}
+     */
+    public boolean isRequiredBefore(String prerequisite, String courseId) {
+        int course = keys.idOf(courseId);
+        int needed = keys.idOf(prerequisite);
+        return course >= 0 && needed >= 0 && requiredClosure[course].get(needed);
+    }
+
+    /**
+     * Checks a course's direct requisites against the courses a student has
+     * completed.
+     */
+    public Eligibility check(String courseId, Collection<String> completed) {
+        BitSet done = new BitSet(keys.size());
+        for (String id : completed) {
+            int key = keys.idOf(id);
+            if (key >= 0) {
+                done.set(key);
+            }
+        }
+        int course = keys.idOf(courseId);
+        if (course < 0) {
+            return new Eligibility(AcademicTableReader.courseKey(courseId), List.of(), List.of(), List.of());
+        }
+        return check(course, done);
+    }
+
+    /**
+     * Checks a course's direct requisites against a set of completed course
+     * key IDs.
+     */
+    public Eligibility check(int course, BitSet completed) {
+        List<String> missing = new ArrayList<>();
+        for (int needed : required[course]) {
+            if (!completed.get(needed)) {
+                missing.add(keys.keyOf(needed));
+            }
+        }
+        boolean anyMet = oneOf[course].length == 0;
+        for (int option : oneOf[course]) {
+            anyMet |= completed.get(option);
+        }
+        List<String> coreqs = new ArrayList<>();
+        for (int needed : corequisites[course]) {
+            if (!completed.get(needed)) {
+                coreqs.add(keys.keyOf(needed));
+            }
+        }
+        return new Eligibility(keys.keyOf(course), missing, anyMet ? List.of() : names(oneOf, course), coreqs);
+    }
+
+    private List<String> names(int[][] adjacency, String courseId) {
+        int index = keys.idOf(courseId);
+        return index < 0 ? List.of() : names(adjacency, index);
+    }
+
+    private List<String> names(int[][] adjacency, int index) {
+        String[] result = new String[adjacency[index].length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = keys.keyOf(adjacency[index][i]);
+        }
+        return List.of(result);
+    }
+
+    private List<String> names(BitSet bits) {
+        String[] result = new String[bits.cardinality()];
+        int next = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result[next++] = keys.keyOf(i);
+        }
+        Arrays.sort(result);
+        return List.of(result);
+    }
+
+    /**
+     * Computes reachability for every node. Nodes are visited prerequisites
+     * first (Kahn's algorithm on the reversed edges) so each closure is the
+     * union of already finished ones; any nodes left on a cycle are then
+     * iterated until nothing changes.
+     */
+    private static BitSet[] closure(int[][] adjacency) {
+        int n = adjacency.length;
+        BitSet[] reach = new BitSet[n];
+        int[] pending = new int[n];
+        List<List<Integer>> dependents = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            reach[i] = new BitSet(n);
+            dependents.add(new ArrayList<>());
+        }
+        for (int course = 0; course < n; course++) {
+            pending[course] = adjacency[course].length;
+            for (int needed : adjacency[course]) {
+                dependents.get(needed).add(course);
+            }
+        }
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            if (pending[i] == 0) {
+                ready.add(i);
+            }
+        }
+        boolean[] done = new boolean[n];
+        while (!ready.isEmpty()) {
+            int course = ready.poll();
+            done[course] = true;
+            for (int needed : adjacency[course]) {
+                reach[course].set(needed);
+                reach[course].or(reach[needed]);
+            }
+            for (int dependent : dependents.get(course)) {
+                if (--pending[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int course = 0; course < n; course++) {
+                if (done[course]) {
+                    continue;
+                }
+                int before = reach[course].cardinality();
+                for (int needed : adjacency[course]) {
+                    reach[course].set(needed);
+                    reach[course].or(reach[needed]);
+                }
+                changed |= reach[course].cardinality() != before;
+            }
+        }
+        for (int course = 0; course < n; course++) {
+            reach[course].clear(course);
+        }
+        return reach;
+    }
+
+    private static List<Set<Integer>> edges(int n) {
+        List<Set<Integer>> edges = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            edges.add(new LinkedHashSet<>());
+        }
+        return edges;
+    }
+
+    private static int[][] toArrays(List<Set<Integer>> edges) {
+        int[][] arrays = new int[edges.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = edges.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return arrays;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
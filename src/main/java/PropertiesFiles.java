@@ -0,0 +1,49 @@
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Load and save helpers for the small properties files the bot uses to keep
+ * state between runs. Saves go through a temporary file and an atomic rename
+ * so a crash never leaves a half-written file behind.
+ */
+public final class PropertiesFiles {
+
+    private PropertiesFiles() {
+    }
+
+    /**
+     * @return The file's properties, or an empty set if it does not exist or
+     * cannot be read
+     */
+    public static Properties load(File file) {
+        Properties properties = new Properties();
+        if (file.exists()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                properties.load(in);
+            } catch (IOException e) {
+                System.err.println("Failed to load " + file + ": " + e.getMessage());
+            }
+        }
+        return properties;
+    }
+
+    public static void save(Properties properties, File file, String comment) {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, comment);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to save " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Paces requests to the OpenAI API so bursts queue up instead of failing.
+ *
+ * Every request takes a token from a bucket that refills at the account's
+ * request rate. When the bucket is empty the request is delayed until a token
+ * is due rather than sent and rejected. The rate starts at a conservative
+ * default and is corrected from the {@code x-ratelimit-*} headers of every
+ * response, so the governor converges on the real quota without
+ * configuration.
+ *
+ * Responses with status 429 pause the whole bucket for the
+ * {@code Retry-After} period and the request is retried. Server errors
+ * (500, 502, 503, 504) and transport failures are retried with jittered
+ * exponential backoff, but only for idempotent methods; a POST is retried
+ * only on 429 because the API rejected it before doing any work.
+ */
+public class RequestGovernor {
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    /**
+     * Sends one attempt of a request; normally {@link HttpClient#sendAsync}.
+     */
+    interface Transport {
+
+        <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler);
+    }
+
+    private final Transport transport;
+    private final int maxRetries;
+    private final long baseBackoffMillis;
+    private final LongSupplier nanoClock;
+
+    private final double capacity;
+    private double tokens;
+    private double refillPerNano;
+    private long lastRefill;
+    private long pausedUntil;
+
+    /**
+     * @param httpClient The client used to send requests
+     * @param requestsPerMinute Initial request rate, corrected from response
+     * headers
+     * @param burst Number of requests that may be sent back to back
+     * @param maxRetries How many times a failed request is retried
+     */
+    public RequestGovernor(HttpClient httpClient, int requestsPerMinute, int burst, int maxRetries) {
+        this(httpClient::sendAsync, requestsPerMinute, burst, maxRetries, 500, System::nanoTime);
+    }
+
+    /**
+     * @param baseBackoffMillis Delay before the first retry of a server
+     * error, doubled for each further retry
+     * @param nanoClock Time source for the token bucket
+     */
+    RequestGovernor(Transport transport, int requestsPerMinute, int burst, int maxRetries,
+            long baseBackoffMillis, LongSupplier nanoClock) {
+        this.transport = transport;
+        this.maxRetries = maxRetries;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.nanoClock = nanoClock;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.refillPerNano = Math.max(1, requestsPerMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Sends a request once a token is available, retrying as described in the
+     * class comment. The future completes with the final response, which may
+     * still be an error status once retries are exhausted.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return attempt(request, handler, 0);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> attempt(HttpRequest request, HttpResponse.BodyHandler<T> handler, int retry) {
+        long waitNanos = reserve();
+        CompletableFuture<HttpResponse<T>> sent = waitNanos <= 0
+                ? transport.sendAsync(request, handler)
+                : CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                        .thenCompose(ignored -> transport.sendAsync(request, handler));
+
+        return sent.handle((response, error) -> {
+            if (error == null) {
+                observe(response.headers());
+            }
+            long retryDelay = retryDelayMillis(request, response, retry);
+            if (retryDelay < 0) {
+                return error == null
+                        ? CompletableFuture.completedFuture(response)
+                        : CompletableFuture.<HttpResponse<T>>failedFuture(error);
+            }
+            return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(retryDelay, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> attempt(request, handler, retry + 1));
+        }).thenCompose(future -> future);
+    }
+
+    /**
+     * @return Milliseconds to wait before retrying, or -1 if the outcome
+     * should be returned to the caller as is
+     */
+    private long retryDelayMillis(HttpRequest request, HttpResponse<?> response, int retry) {
+        if (retry >= maxRetries) {
+            return -1;
+        }
+        boolean idempotent = !request.method().equals("POST");
+        if (response == null) {
+            return idempotent ? backoffMillis(retry) : -1;
+        }
+
+        int status = response.statusCode();
+        if (status == 429) {
+            long retryAfter = retryAfterMillis(response.headers());
+            long delay = retryAfter >= 0 ? retryAfter : backoffMillis(retry);
+            pause(delay);
+            return delay;
+        }
+        if (idempotent && (status == 500 || status == 502 || status == 503 || status == 504)) {
+            long retryAfter = retryAfterMillis(response.headers());
+            return retryAfter >= 0 ? retryAfter : backoffMillis(retry);
+        }
+        return -1;
+    }
+
+    private long backoffMillis(int retry) {
+        long delay = baseBackoffMillis << Math.min(retry, 10);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Takes one token, refilling the bucket first. Tokens may go negative,
+     * which queues the caller behind earlier reservations.
+     *
+     * @return Nanoseconds the caller must wait before sending
+     */
+    synchronized long reserve() {
+        long now = nanoClock.getAsLong();
+        refill(now);
+        tokens -= 1;
+        long wait = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / refillPerNano);
+        return Math.max(wait, pausedUntil - now);
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+
+    private synchronized void pause(long millis) {
+        pausedUntil = Math.max(pausedUntil, nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Adjusts the bucket from the rate-limit headers of a response.
+     */
+    synchronized void observe(HttpHeaders headers) {
+        long limit = headers.firstValueAsLong("x-ratelimit-limit-requests").orElse(-1);
+        if (limit > 0) {
+            refillPerNano = limit / (double) TimeUnit.MINUTES.toNanos(1);
+        }
+
+        long remaining = headers.firstValueAsLong("x-ratelimit-remaining-requests").orElse(-1);
+        if (remaining == 0) {
+            long reset = headers.firstValue("x-ratelimit-reset-requests")
+                    .map(RequestGovernor::parseDurationMillis)
+                    .orElse(-1L);
+            if (reset > 0) {
+                pausedUntil = Math.max(pausedUntil, nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(reset));
+            }
+        } else if (remaining > 0) {
+            refill(nanoClock.getAsLong());
+            tokens = Math.min(tokens, remaining);
+        }
+    }
+
+    /**
+     * Reads {@code retry-after-ms} or {@code Retry-After}, which may hold
+     * either a number of seconds or an HTTP date.
+     *
+     * @return The delay in milliseconds, or -1 if neither header is usable
+     */
+    static long retryAfterMillis(HttpHeaders headers) {
+        long retryAfterMs = headers.firstValueAsLong("retry-after-ms").orElse(-1);
+        if (retryAfterMs >= 0) {
+            return retryAfterMs;
+        }
+        String retryAfter = headers.firstValue("retry-after").orElse(null);
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return (long) (Double.parseDouble(retryAfter.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Parses the reset durations OpenAI sends, such as {@code 20ms},
+     * {@code 1s} or {@code 6m0s}.
+     *
+     * @return The duration in milliseconds, or -1 if it cannot be parsed
+     */
+    static long parseDurationMillis(String value) {
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double millis = 0;
+        int end = 0;
+        while (matcher.find()) {
+            if (matcher.start() != end) {
+                return -1;
+            }
+            double amount = Double.parseDouble(matcher.group(1));
+            millis += switch (matcher.group(2)) {
+                case "h" ->
+                    amount * 3_600_000;
+                case "m" ->
+                    amount * 60_000;
+                case "s" ->
+                    amount * 1_000;
+                default ->
+                    amount;
+            };
+            end = matcher.end();
+        }
+        return end == 0 || end != value.trim().length() ? -1 : (long) Math.ceil(millis);
+    }
+}
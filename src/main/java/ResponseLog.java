@@ -0,0 +1,137 @@
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent raw API responses per category (e.g. "run",
+ * "thread") for debugging. Each category is a fixed-capacity ring buffer, so
+ * adding an entry is O(1), never allocates beyond the stored string and is
+ * safe for concurrent writers without locking.
+ *
+ * Logging can be switched off entirely, limited to every Nth response per
+ * category, or restricted to the first few characters of each payload to
+ * keep retained heap small.
+ */
+public class ResponseLog {
+
+    private final int capacity;
+    private final ConcurrentMap<String, Ring> categories = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+    private volatile int sampleEvery = 1;
+    private volatile int maxPayloadChars = Integer.MAX_VALUE;
+
+    /**
+     * @param capacity Maximum number of responses kept per category
+     */
+    public ResponseLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public void add(String category, String response) {
+        if (!enabled || response == null) {
+            return;
+        }
+        Ring ring = categories.computeIfAbsent(category, key -> new Ring(capacity));
+        int every = sampleEvery;
+        if (every > 1 && ring.seen.getAndIncrement() % every != 0) {
+            return;
+        }
+        int limit = maxPayloadChars;
+        if (response.length() > limit) {
+            response = response.substring(0, limit) + "...[" + (response.length() - limit) + " chars truncated]";
+        }
+        ring.add(response);
+    }
+
+    /**
+     * @return The retained responses for the category, oldest first
+     */
+    public List<String> get(String category) {
+        Ring ring = categories.get(category);
+        return ring == null ? new ArrayList<>() : ring.snapshot();
+    }
+
+    public String latest(String category) {
+        Ring ring = categories.get(category);
+        return ring == null ? null : ring.latest();
+    }
+
+    public void clear(String category) {
+        categories.remove(category);
+    }
+
+    public void clearAll() {
+        categories.clear();
+    }
+
+    public List<String> getCategories() {
+        return new ArrayList<>(categories.keySet());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Keeps only one in every {@code n} responses per category (1 keeps all).
+     */
+    public void setSampleEvery(int n) {
+        this.sampleEvery = Math.max(1, n);
+    }
+
+    /**
+     * Truncates stored payloads to at most {@code chars} characters.
+     */
+    public void setMaxPayloadChars(int chars) {
+        this.maxPayloadChars = Math.max(0, chars);
+    }
+
+    private static final class Ring {
+
+        private final AtomicReferenceArray<String> slots;
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong seen = new AtomicLong();
+
+        Ring(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        void add(String response) {
+            long index = written.getAndIncrement();
+            slots.set((int) (index % slots.length()), response);
+        }
+
+        String latest() {
+            long count = written.get();
+            return count == 0 ? null : slots.get((int) ((count - 1) % slots.length()));
+        }
+
+        /**
+         * Reads without blocking writers; a slot overwritten during the copy
+         * shows its newer value, which is acceptable for a debugging log.
+         */
+        List<String> snapshot() {
+            long count = written.get();
+            long start = Math.max(0, count - slots.length());
+            List<String> responses = new ArrayList<>((int) (count - start));
+            for (long i = start; i < count; i++) {
+                String response = slots.get((int) (i % slots.length()));
+                if (response != null) {
+                    responses.add(response);
+                }
+            }
+            return responses;
+        }
+    }
+}
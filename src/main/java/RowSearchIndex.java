@@ -0,0 +1,235 @@
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Local keyword search over the rows of acu_database.txt, ranked with Okapi
+ * BM25. Each table row is one document rendered as
+ * {@code table: column=value, ...}; an inverted index maps every token to the
+ * rows containing it, so a query only touches the postings of its own terms.
+ *
+ * Course IDs are indexed both whole and split ("CS120" also yields "cs" and
+ * "120"), and a query's adjacent subject and number ("CS 120") are joined
+ * again, so either spelling finds the course.
+ */
+public class RowSearchIndex {
+
+    /**
+     * One matching row.
+     */
+    public record Hit(String table, String text, double score) {
+
+    }
+
+    private record Postings(int[] rows, int[] frequencies) {
+
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "of", "to", "in", "on", "for", "is", "are", "be", "can", "i", "me", "my",
+            "do", "does", "what", "which", "when", "where", "who", "how", "will", "would", "should",
+            "it", "this", "that", "with", "at", "by", "or", "about", "please", "you", "your", "am", "have");
+
+    private final List<String> tables = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final int[] lengths;
+    private final double averageLength;
+    private final Map<String, Postings> index;
+
+    public static RowSearchIndex load(Path file) throws IOException {
+        AcademicTableReader reader = new AcademicTableReader();
+        Map<String, List<String[]>> rows = reader.read(file);
+        return new RowSearchIndex(rows, reader.getHeaders());
+    }
+
+    /**
+     * @param rows Table rows split into columns
+     * @param headers Column names per table, used to label values
+     */
+    public RowSearchIndex(Map<String, List<String[]>> rows, Map<String, String[]> headers) {
+        Map<String, List<int[]>> building = new HashMap<>();
+        List<Integer> rowLengths = new ArrayList<>();
+        for (Map.Entry<String, List<String[]>> table : rows.entrySet()) {
+            String[] columns = headers.getOrDefault(table.getKey(), new String[0]);
+            for (String[] row : table.getValue()) {
+                int id = texts.size();
+                tables.add(table.getKey());
+                texts.add(render(table.getKey(), columns, row));
+
+                Map<String, Integer> frequencies = new HashMap<>();
+                int length = 0;
+                for (String value : row) {
+                    for (String token : tokenize(value)) {
+                        frequencies.merge(token, 1, Integer::sum);
+                        length++;
+                    }
+                }
+                for (String token : tokenize(table.getKey().replace('_', ' '))) {
+                    frequencies.merge(token, 1, Integer::sum);
+                }
+                for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+                    building.computeIfAbsent(term.getKey(), key -> new ArrayList<>())
+                            .add(new int[]{id, term.getValue()});
+                }
+                rowLengths.add(Math.max(1, length));
+            }
+        }
+
+        this.index = new HashMap<>(building.size() * 2);
+        for (Map.Entry<String, List<int[]>> term : building.entrySet()) {
+            List<int[]> list = term.getValue();
+            int[] ids = new int[list.size()];
+            int[] frequencies = new int[list.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = list.get(i)[0];
+                frequencies[i] = list.get(i)[1];
+            }
+            index.put(term.getKey(), new Postings(ids, frequencies));
+        }
+        this.lengths = rowLengths.stream().mapToInt(Integer::intValue).toArray();
+        long total = 0;
+        for (int length : lengths) {
+            total += length;
+        }
+        this.averageLength = lengths.length == 0 ? 1 : (double) total / lengths.length;
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    /**
+     * @return Up to {@code limit} rows, best match first; empty when no query
+     * term occurs in the data
+     */
+    public List<Hit> search(String query, int limit) {
+        if (limit <= 0 || texts.isEmpty()) {
+            return List.of();
+        }
+        double[] scores = new double[texts.size()];
+        boolean matched = false;
+        int rowCount = texts.size();
+        for (String term : queryTerms(query)) {
+            Postings postings = index.get(term);
+            if (postings == null) {
+                continue;
+            }
+            matched = true;
+            int df = postings.rows().length;
+            double idf = Math.log(1 + (rowCount - df + 0.5) / (df + 0.5));
+            for (int i = 0; i < df; i++) {
+                int row = postings.rows()[i];
+                double tf = postings.frequencies()[i];
+                double norm = K1 * (1 - B + B * lengths[row] / averageLength);
+                scores[row] += idf * tf * (K1 + 1) / (tf + norm);
+            }
+        }
+        if (!matched) {
+            return List.of();
+        }
+
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1,
+                (a, b) -> scores[a] != scores[b] ? Double.compare(scores[a], scores[b]) : Integer.compare(b, a));
+        for (int row = 0; row < scores.length; row++) {
+            if (scores[row] <= 0) {
+                continue;
+            }
+            best.add(row);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int row = best.poll();
+            hits.add(new Hit(tables.get(row), texts.get(row), scores[row]));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    /**
+     * Renders hits as plain lines for a run's additional instructions.
+     */
+    public static String format(List<Hit> hits) {
+        StringBuilder text = new StringBuilder();
+        for (Hit hit : hits) {
+            text.append(hit.text()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String render(String table, String[] columns, String[] row) {
+        StringBuilder text = new StringBuilder(table).append(": ");
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            if (i < columns.length) {
+                text.append(columns[i]).append('=');
+            }
+            text.append(row[i]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Splits text into lower-case alphanumeric tokens. A token mixing
+     * letters and digits also yields its letter and digit parts.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean alnum = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (alnum && start < 0) {
+                start = i;
+            } else if (!alnum && start >= 0) {
+                addToken(tokens, text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String token) {
+        if (STOP_WORDS.contains(token)) {
+            return;
+        }
+        tokens.add(token);
+        int split = 0;
+        while (split < token.length() && Character.isLetter(token.charAt(split))) {
+            split++;
+        }
+        if (split > 0 && split < token.length()) {
+            tokens.add(token.substring(0, split));
+            tokens.add(token.substring(split));
+        }
+    }
+
+    private static Set<String> queryTerms(String query) {
+        List<String> tokens = tokenize(query);
+        Set<String> terms = new LinkedHashSet<>(tokens);
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            String subject = tokens.get(i);
+            String number = tokens.get(i + 1);
+            if (subject.chars().allMatch(Character::isLetter) && !number.isEmpty()
+                    && number.chars().allMatch(Character::isDigit)) {
+                terms.add(subject + number);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,117 @@
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+
+import org.json.JSONObject;
+
+/**
+ * Polls the status of any number of in-flight runs. Every poller in the
+ * process shares one daemon scheduler thread, and each poll is an
+ * asynchronous request, so waiting runs cost a scheduled task rather than a
+ * thread parked in {@code Thread.sleep}.
+ */
+public class RunPoller {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "run-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final BiFunction<String, String, CompletableFuture<String>> fetcher;
+    private final Set<CompletableFuture<JSONObject>> waiting = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutdown;
+
+    /**
+     * @param fetcher Retrieves the raw run JSON for a (threadId, runId) pair
+     */
+    public RunPoller(BiFunction<String, String, CompletableFuture<String>> fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Starts polling a run.
+     *
+     * @return A future completing with the run object once its status is
+     * terminal (completed, failed, cancelled, expired, incomplete or
+     * requires_action), or exceptionally with a {@link TimeoutException}
+     */
+    public CompletableFuture<JSONObject> await(String threadId, String runId, PollingStrategy strategy, Duration timeout) {
+        CompletableFuture<JSONObject> result = new CompletableFuture<>();
+        if (shutdown) {
+            result.completeExceptionally(new CancellationException("Run poller is shut down"));
+            return result;
+        }
+        waiting.add(result);
+        result.whenComplete((run, error) -> waiting.remove(result));
+        long deadline = System.nanoTime() + timeout.toNanos();
+        schedule(threadId, runId, strategy, deadline, 0, result);
+        return result;
+    }
+
+    private void schedule(String threadId, String runId, PollingStrategy strategy, long deadline,
+            int attempt, CompletableFuture<JSONObject> result) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            result.completeExceptionally(new TimeoutException("Run " + runId + " did not finish in time"));
+            return;
+        }
+        long delay = attempt == 0 ? 0 : Math.min(strategy.delayMillis(attempt - 1), remainingMillis);
+        SCHEDULER.schedule(() -> poll(threadId, runId, strategy, deadline, attempt, result), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(String threadId, String runId, PollingStrategy strategy, long deadline,
+            int attempt, CompletableFuture<JSONObject> result) {
+        if (result.isDone()) {
+            return;
+        }
+        fetcher.apply(threadId, runId).whenComplete((runResponse, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            JSONObject run;
+            try {
+                run = new JSONObject(runResponse);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            String status = run.optString("status", null);
+            if (status == null || isTerminal(status)) {
+                result.complete(run);
+            } else {
+                schedule(threadId, runId, strategy, deadline, attempt + 1, result);
+            }
+        });
+    }
+
+    public static boolean isTerminal(String status) {
+        return switch (status) {
+            case "completed", "failed", "cancelled", "expired", "incomplete", "requires_action" ->
+                true;
+            default ->
+                false;
+        };
+    }
+
+    /**
+     * Stops this poller. Runs it is still waiting for complete with a
+     * {@link CancellationException}; the shared scheduler keeps serving other
+     * pollers.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (CompletableFuture<JSONObject> result : waiting) {
+            result.completeExceptionally(new CancellationException("Run poller is shut down"));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+
+import org.json.JSONObject;
+
+/**
+ * Callback for runs created in streaming mode. Every method has a no-op
+ * default so callers only override what they need. Callbacks run on the HTTP
+ * client's executor and should return quickly.
+ */
+public interface RunStreamListener {
+
+    /**
+     * Called for each fragment of assistant text as it is generated.
+     */
+    default void onTextDelta(String delta) {
+    }
+
+    /**
+     * Called whenever the run moves to a new status (queued, in_progress,
+     * requires_action, completed, ...).
+     */
+    default void onStatus(String status) {
+    }
+
+    /**
+     * Called for every event in the stream, including the ones already
+     * reported through the more specific callbacks.
+     */
+    default void onEvent(String event, JSONObject data) {
+    }
+}
@@ -0,0 +1,250 @@
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seat counts and schedule conflicts for the sections of one
+ * {@link AcademicDatabase}, precomputed once so the model never has to do the
+ * arithmetic itself.
+ *
+ * The section table records meeting days and start and end dates but no
+ * class times, so two sections conflict when they are in the same term, their
+ * date ranges overlap and they share at least one meeting day. Sections of
+ * each term are kept sorted by start date with a running maximum of end dates,
+ * which turns "what overlaps this date range" into a binary search plus a
+ * short backward scan.
+ */
+public class ScheduleAnalyzer {
+
+    /**
+     * Two sections that meet on the same days during overlapping dates.
+     */
+    public record Conflict(AcademicDatabase.Section section, AcademicDatabase.Section other, String sharedDays,
+            LocalDate from, LocalDate to) {
+
+    }
+
+    private static final String DAY_LETTERS = "MTWRFSU";
+
+    /**
+     * Sections of one term sorted by start date, with {@code maxEnd[i]} the
+     * latest end date among the first {@code i + 1} sections.
+     */
+    private record TermIndex(AcademicDatabase.Section[] sections, long[] starts, long[] maxEnd) {
+
+    }
+
+    private final AcademicDatabase database;
+    private final Map<Integer, Integer> enrolled = new HashMap<>();
+    private final Map<String, TermIndex> terms = new HashMap<>();
+
+    public ScheduleAnalyzer(AcademicDatabase database) {
+        this.database = database;
+        for (AcademicDatabase.Section section : database.getSections()) {
+            enrolled.put(section.crn(), database.getEnrollmentsForSection(section.crn()).size());
+        }
+        Map<String, List<AcademicDatabase.Section>> byTerm = new HashMap<>();
+        for (AcademicDatabase.Section section : database.getSections()) {
+            byTerm.computeIfAbsent(section.term(), key -> new ArrayList<>()).add(section);
+        }
+        for (Map.Entry<String, List<AcademicDatabase.Section>> term : byTerm.entrySet()) {
+            AcademicDatabase.Section[] sections = term.getValue().toArray(AcademicDatabase.Section[]::new);
+            Arrays.sort(sections, Comparator.comparing(AcademicDatabase.Section::startDate)
+                    .thenComparingInt(AcademicDatabase.Section::crn));
+            long[] starts = new long[sections.length];
+            long[] maxEnd = new long[sections.length];
+            long latest = Long.MIN_VALUE;
+            for (int i = 0; i < sections.length; i++) {
+                starts[i] = sections[i].startDate().toEpochDay();
+                latest = Math.max(latest, sections[i].endDate().toEpochDay());
+                maxEnd[i] = latest;
+            }
+            terms.put(term.getKey(), new TermIndex(sections, starts, maxEnd));
+        }
+    }
+
+    /**
+     * @return Students enrolled in the section, or -1 if it does not exist
+     */
+    public int getEnrolled(int crn) {
+        return enrolled.getOrDefault(crn, -1);
+    }
+
+    /**
+     * @return Seats left in the section (never negative), or -1 if it does
+     * not exist
+     */
+    public int getOpenSeats(int crn) {
+        AcademicDatabase.Section section = database.getSection(crn);
+        if (section == null) {
+            return -1;
+        }
+        return Math.max(0, section.capacity() - enrolled.get(crn));
+    }
+
+    /**
+     * @param term Only sections in this term, or null for every term
+     * @return Sections of the course that still have open seats
+     */
+    public List<AcademicDatabase.Section> getSectionsWithSeats(String courseId, String term) {
+        List<AcademicDatabase.Section> open = new ArrayList<>();
+        for (AcademicDatabase.Section section : database.getSectionsForCourse(courseId)) {
+            if ((term == null || section.term().equalsIgnoreCase(term)) && getOpenSeats(section.crn()) > 0) {
+                open.add(section);
+            }
+        }
+        return open;
+    }
+
+    /**
+     * @return Every other section that conflicts with the given one
+     */
+    public List<Conflict> getConflicts(int crn) {
+        AcademicDatabase.Section section = database.getSection(crn);
+        List<Conflict> conflicts = new ArrayList<>();
+        if (section == null) {
+            return conflicts;
+        }
+        TermIndex index = terms.get(section.term());
+        long start = section.startDate().toEpochDay();
+        long end = section.endDate().toEpochDay();
+        // Last section starting on or before this one ends
+        int i = upperBound(index.starts(), end) - 1;
+        for (; i >= 0 && index.maxEnd()[i] >= start; i--) {
+            AcademicDatabase.Section other = index.sections()[i];
+            if (other.crn() != crn) {
+                Conflict conflict = conflict(section, other);
+                if (conflict != null) {
+                    conflicts.add(conflict);
+                }
+            }
+        }
+        conflicts.sort(Comparator.comparingInt(c -> c.other().crn()));
+        return conflicts;
+    }
+
+    /**
+     * @param schedule CRNs of the sections already on the schedule
+     * @return The scheduled sections the given one would conflict with
+     */
+    public List<Conflict> getConflicts(int crn, Collection<Integer> schedule) {
+        AcademicDatabase.Section section = database.getSection(crn);
+        List<Conflict> conflicts = new ArrayList<>();
+        if (section == null) {
+            return conflicts;
+        }
+        for (int scheduled : schedule) {
+            AcademicDatabase.Section other = database.getSection(scheduled);
+            if (other != null && scheduled != crn) {
+                Conflict conflict = conflict(section, other);
+                if (conflict != null) {
+                    conflicts.add(conflict);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * @return Sections the student is enrolled in that the given section
+     * would conflict with
+     */
+    public List<Conflict> getConflictsForStudent(int studentId, int crn) {
+        return getConflicts(crn, scheduleOf(studentId));
+    }
+
+    /**
+     * @return Every pair of conflicting sections already on the student's
+     * schedule
+     */
+    public List<Conflict> getScheduleConflicts(int studentId) {
+        List<Integer> schedule = scheduleOf(studentId);
+        List<Conflict> conflicts = new ArrayList<>();
+        for (int i = 0; i < schedule.size(); i++) {
+            for (int j = i + 1; j < schedule.size(); j++) {
+                AcademicDatabase.Section a = database.getSection(schedule.get(i));
+                AcademicDatabase.Section b = database.getSection(schedule.get(j));
+                Conflict conflict = a == null || b == null ? null : conflict(a, b);
+                if (conflict != null) {
+                    conflicts.add(conflict);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * @return Bit mask of meeting days, Monday in bit 0 through Sunday in bit
+     * 6; R or Th is Thursday, S or Sa Saturday and U or Su Sunday, in
+     * either case
+     */
+    static int dayMask(String days) {
+        int mask = 0;
+        for (int i = 0; i < days.length(); i++) {
+            char letter = Character.toUpperCase(days.charAt(i));
+            char next = i + 1 < days.length() ? Character.toUpperCase(days.charAt(i + 1)) : ' ';
+            // Two-letter spellings in either case: Th for Thursday, Sa and Su
+            if (letter == 'T' && next == 'H') {
+                letter = 'R';
+                i++;
+            } else if (letter == 'S' && next == 'U') {
+                letter = 'U';
+                i++;
+            } else if (letter == 'S' && next == 'A') {
+                i++;
+            }
+            int day = DAY_LETTERS.indexOf(letter);
+            if (day >= 0) {
+                mask |= 1 << day;
+            }
+        }
+        return mask;
+    }
+
+    private List<Integer> scheduleOf(int studentId) {
+        List<Integer> schedule = new ArrayList<>();
+        for (AcademicDatabase.Enrollment enrollment : database.getEnrollmentsForStudent(studentId)) {
+            schedule.add(enrollment.crn());
+        }
+        return schedule;
+    }
+
+    private static Conflict conflict(AcademicDatabase.Section a, AcademicDatabase.Section b) {
+        if (!a.term().equals(b.term())) {
+            return null;
+        }
+        LocalDate from = a.startDate().isAfter(b.startDate()) ? a.startDate() : b.startDate();
+        LocalDate to = a.endDate().isBefore(b.endDate()) ? a.endDate() : b.endDate();
+        int shared = dayMask(a.days()) & dayMask(b.days());
+        if (from.isAfter(to) || shared == 0) {
+            return null;
+        }
+        StringBuilder days = new StringBuilder();
+        for (int day = 0; day < DAY_LETTERS.length(); day++) {
+            if ((shared & (1 << day)) != 0) {
+                days.append(DAY_LETTERS.charAt(day));
+            }
+        }
+        return new Conflict(a, b, days.toString(), from, to);
+    }
+
+    private static int upperBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,81 @@
+
+/**
+ * Incremental parser for a {@code text/event-stream} body. Lines are fed one
+ * at a time as they arrive off the wire and each complete event is handed to
+ * the handler as soon as its terminating blank line is seen, so nothing waits
+ * for the full response.
+ *
+ * Only the {@code event} and {@code data} fields are tracked; {@code id},
+ * {@code retry} and comment lines are ignored because run streams are never
+ * resumed.
+ */
+public class ServerSentEventParser {
+
+    @FunctionalInterface
+    public interface Handler {
+
+        void onEvent(String event, String data);
+    }
+
+    private final Handler handler;
+    private String eventName;
+    private final StringBuilder data = new StringBuilder();
+    private boolean hasData;
+
+    public ServerSentEventParser(Handler handler) {
+        this.handler = handler;
+    }
+
+    public void feed(String line) {
+        if (line.isEmpty()) {
+            dispatch();
+            return;
+        }
+        if (line.charAt(0) == ':') {
+            return;
+        }
+
+        int colon = line.indexOf(':');
+        String field = colon < 0 ? line : line.substring(0, colon);
+        String value = "";
+        if (colon >= 0) {
+            int valueStart = colon + 1;
+            if (valueStart < line.length() && line.charAt(valueStart) == ' ') {
+                valueStart++;
+            }
+            value = line.substring(valueStart);
+        }
+
+        switch (field) {
+            case "event" ->
+                eventName = value;
+            case "data" -> {
+                if (hasData) {
+                    data.append('\n');
+                }
+                data.append(value);
+                hasData = true;
+            }
+            default -> {
+                // id, retry and unknown fields are not needed for run streams
+            }
+        }
+    }
+
+    /**
+     * Flushes a trailing event that was not followed by a blank line before
+     * the stream closed.
+     */
+    public void finish() {
+        dispatch();
+    }
+
+    private void dispatch() {
+        if (hasData || eventName != null) {
+            handler.onEvent(eventName == null ? "message" : eventName, data.toString());
+        }
+        eventName = null;
+        data.setLength(0);
+        hasData = false;
+    }
+}
@@ -0,0 +1,163 @@
+
+import java.util.concurrent.Flow;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Accumulates the server-sent events of a streaming run into its final
+ * state: the run id and status, the assistant's reply text and any error.
+ * The reply text comes straight from the stream, so no follow-up
+ * {@code listMessages} call is needed once the run completes.
+ */
+public class StreamedRun {
+
+    private final RunStreamListener listener;
+    private final StringBuilder deltaText = new StringBuilder();
+    private String completedText;
+    private String runId;
+    private String status;
+    private JSONObject run;
+    private JSONObject lastError;
+    private boolean done;
+    private Flow.Subscription subscription;
+    private boolean cancelled;
+
+    StreamedRun(RunStreamListener listener) {
+        this.listener = listener != null ? listener : new RunStreamListener() {
+        };
+    }
+
+    /**
+     * Applies one event from the stream. Called in arrival order by the
+     * engine's line subscriber.
+     */
+    synchronized void accept(String event, String data) {
+        if (event.equals("done") || data.equals("[DONE]")) {
+            done = true;
+            return;
+        }
+
+        JSONObject json;
+        try {
+            json = new JSONObject(data);
+        } catch (JSONException e) {
+            return;
+        }
+
+        if (event.startsWith("thread.run.") && !event.startsWith("thread.run.step")) {
+            run = json;
+            runId = json.optString("id", runId);
+            String newStatus = json.optString("status", status);
+            if (newStatus != null && !newStatus.equals(status)) {
+                status = newStatus;
+                listener.onStatus(status);
+            }
+            JSONObject error = json.optJSONObject("last_error");
+            if (error != null) {
+                lastError = error;
+            }
+        } else if (event.equals("thread.message.delta")) {
+            JSONArray content = json.optJSONObject("delta") != null
+                    ? json.getJSONObject("delta").optJSONArray("content") : null;
+            String delta = collectText(content);
+            if (!delta.isEmpty()) {
+                deltaText.append(delta);
+                listener.onTextDelta(delta);
+            }
+        } else if (event.equals("thread.message.completed")) {
+            if ("assistant".equals(json.optString("role"))) {
+                completedText = collectText(json.optJSONArray("content"));
+            }
+        } else if (event.equals("error")) {
+            lastError = json.optJSONObject("error") != null ? json.getJSONObject("error") : json;
+            status = "failed";
+            listener.onStatus(status);
+        }
+
+        listener.onEvent(event, json);
+    }
+
+    /**
+     * Remembers the subscription of the stream currently feeding this run so
+     * it can be cancelled; a run that was already cancelled drops it at once.
+     */
+    synchronized void attach(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Stops reading the stream. No further tool-output rounds are started for
+     * a cancelled run.
+     */
+    synchronized void cancelStream() {
+        cancelled = true;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    private static String collectText(JSONArray content) {
+        if (content == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < content.length(); i++) {
+            JSONObject part = content.optJSONObject(i);
+            if (part != null && "text".equals(part.optString("type"))) {
+                JSONObject textObj = part.optJSONObject("text");
+                if (textObj != null) {
+                    text.append(textObj.optString("value", ""));
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    public synchronized String getRunId() {
+        return runId;
+    }
+
+    public synchronized String getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The assistant's reply, taken from the completed message when the
+     * stream delivered one and from the concatenated deltas otherwise
+     */
+    public synchronized String getText() {
+        return completedText != null ? completedText : deltaText.toString();
+    }
+
+    /**
+     * @return The most recent run object seen in the stream, or null
+     */
+    public synchronized JSONObject getRun() {
+        return run;
+    }
+
+    public synchronized JSONObject getLastError() {
+        return lastError;
+    }
+
+    public synchronized boolean isCompleted() {
+        return "completed".equals(status);
+    }
+
+    /**
+     * @return True once the stream has sent its terminating {@code done}
+     * event
+     */
+    public synchronized boolean isDone() {
+        return done;
+    }
+}
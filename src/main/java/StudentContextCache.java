@@ -0,0 +1,105 @@
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Short, pre-rendered descriptions of individual students (name, majors,
+ * current sections and completed courses) built from the local tables, to be
+ * attached to a run as additional instructions. The model gets the student's
+ * record directly instead of searching the uploaded database for it.
+ *
+ * Blocks are looked up by student ID only, which callers resolve from a
+ * {@link StudentDirectory}. They are cached per ID and rebuilt when the
+ * catalog version or the day changes.
+ */
+public class StudentContextCache {
+
+    private record Rendered(long version, LocalDate date, String text) {
+
+    }
+
+    private final Supplier<AcademicCatalog> catalogs;
+    private final DegreeAuditEngine audits;
+    private final Map<Integer, Rendered> cache = new ConcurrentHashMap<>();
+
+    public StudentContextCache(Supplier<AcademicCatalog> catalogs) {
+        this.catalogs = catalogs;
+        this.audits = new DegreeAuditEngine(catalogs);
+    }
+
+    /**
+     * @return The student's context block, or null if there is no such student
+     */
+    public String forStudent(int studentId) {
+        return render(catalogs.get(), studentId, LocalDate.now());
+    }
+
+    String render(AcademicCatalog catalog, int studentId, LocalDate today) {
+        Rendered cached = cache.get(studentId);
+        if (cached != null && cached.version() == catalog.version() && cached.date().equals(today)) {
+            return cached.text();
+        }
+        if (cached != null && cached.version() != catalog.version()) {
+            // Blocks from an older catalog will never be served again
+            cache.clear();
+        }
+        String text = build(catalog, studentId, today);
+        if (text != null) {
+            cache.put(studentId, new Rendered(catalog.version(), today, text));
+        }
+        return text;
+    }
+
+    private String build(AcademicCatalog catalog, int studentId, LocalDate today) {
+        AcademicDatabase database = catalog.database();
+        AcademicDatabase.Student student = database.getStudent(studentId);
+        DegreeAuditEngine.Audit audit = audits.audit(studentId, today);
+        if (student == null || audit == null) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder("Student record for ").append(student.fullName())
+                .append(" (student ID ").append(student.id()).append("):\n");
+
+        text.append("Majors: ");
+        if (audit.majors().isEmpty()) {
+            text.append("none declared");
+        }
+        for (int i = 0; i < audit.majors().size(); i++) {
+            DegreeAuditEngine.MajorProgress major = audit.majors().get(i);
+            text.append(i > 0 ? "; " : "").append(major.majorId()).append(" (").append(major.title())
+                    .append("), ").append(major.remaining().size()).append(" listed courses remaining");
+        }
+        text.append('\n');
+
+        text.append("Current sections:");
+        int current = 0;
+        for (AcademicDatabase.Enrollment enrollment : database.getEnrollmentsForStudent(studentId)) {
+            AcademicDatabase.Section section = database.getSection(enrollment.crn());
+            if (section == null || enrollment.grade() != null || section.endDate().isBefore(today)) {
+                continue;
+            }
+            AcademicDatabase.Course course = database.getCourse(section.courseId());
+            text.append(current++ > 0 ? ";" : "").append(' ').append(section.courseId());
+            if (course != null) {
+                text.append(' ').append(course.title());
+            }
+            text.append(", CRN ").append(section.crn()).append(", ").append(section.term()).append(", ")
+                    .append(section.days()).append(", room ").append(section.room());
+        }
+        if (current == 0) {
+            text.append(" none");
+        }
+        text.append('\n');
+
+        text.append("Completed courses: ").append(list(audit.completed()))
+                .append(" (").append(audit.completedHours()).append(" hours)\n");
+        return text.toString();
+    }
+
+    private static String list(List<String> courses) {
+        return courses.isEmpty() ? "none recorded" : String.join(", ", courses);
+    }
+}
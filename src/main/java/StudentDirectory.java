@@ -0,0 +1,49 @@
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Maps verified sender addresses to student IDs, one
+ * {@code address=studentId} line per student in a properties file kept by
+ * the registrar. It is the only way a sender is tied to a student record: the
+ * name in an address is never used, because anyone can send from
+ * {@code first.last@} any domain and students can share a name.
+ *
+ * The file is read again when it changes on disk.
+ */
+public class StudentDirectory {
+
+    private final File file;
+    private Properties ids = new Properties();
+    private long loadedModified = Long.MIN_VALUE;
+
+    public StudentDirectory(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @param address The sender's email address
+     * @return The student's ID, or -1 if the address is not in the directory
+     */
+    public synchronized int studentIdFor(String address) {
+        if (address == null || address.isBlank()) {
+            return -1;
+        }
+        long modified = file.lastModified();
+        if (modified != loadedModified) {
+            ids = PropertiesFiles.load(file);
+            loadedModified = modified;
+        }
+        String id = ids.getProperty(address.strip().toLowerCase(Locale.ROOT));
+        if (id == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(id.strip());
+        } catch (NumberFormatException e) {
+            System.err.println("Student directory: " + address + " has no valid student ID: " + id);
+            return -1;
+        }
+    }
+}
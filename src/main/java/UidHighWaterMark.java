@@ -0,0 +1,94 @@
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Remembers how far into INBOX the bot has read, as an IMAP UIDVALIDITY and
+ * the highest UID below which every message has been handled. Each poll then
+ * fetches only {@code lastUid+1:*} instead of searching the whole mailbox. The
+ * mark is kept in a properties file and survives restarts.
+ *
+ * UIDs handed out by a poll stay pending until they are acknowledged. The mark
+ * only moves up to just below the lowest pending UID, so a message whose
+ * processing failed is fetched again next time, and it is processed again
+ * even if it has been flagged seen meanwhile. A new UIDVALIDITY means the
+ * server renumbered the mailbox; the stored mark is dropped and the next poll
+ * falls back to a search for unseen mail.
+ */
+public class UidHighWaterMark {
+
+    private static final String VALIDITY = "uid.validity";
+    private static final String LAST_UID = "uid.last";
+
+    private final File file;
+    private final Properties state;
+    private final TreeSet<Long> pending = new TreeSet<>();
+    private long uidValidity;
+    private long lastUid;
+    private long fetchedUpTo = -1;
+
+    public UidHighWaterMark(File file) {
+        this.file = file;
+        this.state = PropertiesFiles.load(file);
+        this.uidValidity = Long.parseLong(state.getProperty(VALIDITY, "-1"));
+        this.lastUid = Long.parseLong(state.getProperty(LAST_UID, "-1"));
+    }
+
+    /**
+     * @return The UID after which to fetch, or -1 if nothing is known for
+     * this UIDVALIDITY
+     */
+    public synchronized long resumeAfter(long validity) {
+        return validity == uidValidity ? lastUid : -1;
+    }
+
+    /**
+     * Records the UIDs a poll returned.
+     *
+     * @param upTo Highest UID the poll covered; messages up to it that were
+     * not returned needed no processing
+     */
+    public synchronized void fetched(long validity, Collection<Long> uids, long upTo) {
+        if (validity != uidValidity) {
+            uidValidity = validity;
+            lastUid = -1;
+            pending.clear();
+            fetchedUpTo = -1;
+        }
+        pending.addAll(uids);
+        for (long uid : uids) {
+            upTo = Math.max(upTo, uid);
+        }
+        fetchedUpTo = Math.max(fetchedUpTo, upTo);
+        advance();
+    }
+
+    /**
+     * @return True if a poll returned the UID and it has not been
+     * acknowledged yet
+     */
+    public synchronized boolean isPending(long validity, long uid) {
+        return validity == uidValidity && pending.contains(uid);
+    }
+
+    /**
+     * Marks a fetched message as handled.
+     */
+    public synchronized void acknowledge(long uid) {
+        if (pending.remove(uid)) {
+            advance();
+        }
+    }
+
+    private void advance() {
+        long mark = pending.isEmpty() ? fetchedUpTo : pending.first() - 1;
+        if (mark > lastUid) {
+            lastUid = mark;
+            state.setProperty(VALIDITY, String.valueOf(uidValidity));
+            state.setProperty(LAST_UID, String.valueOf(lastUid));
+            PropertiesFiles.save(state, file, "Highest INBOX UID handled, per UIDVALIDITY");
+        }
+    }
+}
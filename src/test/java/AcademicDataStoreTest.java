@@ -0,0 +1,66 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AcademicDataStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String catalog(String course, String title) {
+        return "Table: course\nid department title num hrs\n" + course + " CS " + title + " 120 3\n";
+    }
+
+    @Test
+    void testReloadSwapsCatalogAndKeepsOldOnFailure() throws IOException {
+        Path source = tempDir.resolve("acu.txt");
+        Files.writeString(source, catalog("CS120", "Programming I"));
+        try (AcademicDataStore store = new AcademicDataStore(source, null)) {
+            AcademicCatalog first = store.get();
+            assertNotNull(first.database().getCourse("CS120"));
+
+            Files.writeString(source, catalog("CS121", "Programming Lab"));
+            AcademicCatalog second = store.reload().join();
+            assertSame(second, store.get());
+            assertTrue(second.version() > first.version());
+            assertNull(second.database().getCourse("CS120"));
+            // Readers holding the old catalog still see consistent old data
+            assertNotNull(first.database().getCourse("CS120"));
+
+            Files.delete(source);
+            assertThrows(CompletionException.class, () -> store.reload().join());
+            assertSame(second, store.get());
+        }
+    }
+
+    @Test
+    void testWatcherReloadsChangedFile() throws Exception {
+        Path source = tempDir.resolve("acu.txt");
+        Files.writeString(source, catalog("CS120", "Programming I"));
+        try (AcademicDataStore store = new AcademicDataStore(source, tempDir.resolve("acu.snapshot"))) {
+            CountDownLatch reloaded = new CountDownLatch(1);
+            store.addListener(catalog -> {
+                if (catalog.database().getCourse("CS130") != null) {
+                    reloaded.countDown();
+                }
+            });
+            store.startWatching();
+
+            Files.writeString(source, catalog("CS130", "Programming II"));
+            assertTrue(reloaded.await(20, TimeUnit.SECONDS), "change was not picked up");
+            assertEquals("Programming II", store.get().database().getCourse("CS130").title());
+        }
+    }
+}
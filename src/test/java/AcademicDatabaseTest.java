@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class AcademicDatabaseTest {
+
+    private static AcademicDatabase database;
+
+    @BeforeAll
+    static void load() throws IOException {
+        database = AcademicDatabase.load(Path.of("acu_database.txt"));
+    }
+
+    @Test
+    void testEveryRowIsRead() {
+        assertEquals(List.of(), database.getWarnings());
+        assertFalse(database.getCourses().isEmpty());
+        assertFalse(database.getSections().isEmpty());
+    }
+
+    @Test
+    void testCoursesAreIndexedByCompactId() {
+        AcademicDatabase.Course course = database.getCourse("ACCT 302");
+        assertEquals("Cost Accounting 1", course.title());
+        assertEquals("302", course.number());
+        assertEquals(3, course.hours());
+        assertTrue(database.getCoursesInDepartment("ACCT").contains(course));
+    }
+
+    @Test
+    void testSectionsWithSpacesInRoom() {
+        AcademicDatabase.Section section = database.getSection(10120);
+        assertEquals("Don Morris110", section.room());
+        assertEquals(15, section.capacity());
+        assertEquals("JMC224", section.courseId());
+        assertEquals("Spring 2025", section.term());
+        assertEquals(LocalDate.of(2025, 1, 14), section.startDate());
+        assertTrue(database.getSectionsForCourse("JMC224").contains(section));
+        assertTrue(database.getSectionsInTerm("Spring 2025").contains(section));
+    }
+
+    @Test
+    void testRequisitesJoinOnCourseIds() {
+        List<AcademicDatabase.Requisite> chem = database.getRequisitesFor(AcademicDatabase.RequisiteKind.AND, "CHEM133");
+        assertTrue(chem.contains(new AcademicDatabase.Requisite("CHEM133", "MATH124")));
+        assertTrue(database.getRequisitesOn(AcademicDatabase.RequisiteKind.AND, "CS130")
+                .contains(new AcademicDatabase.Requisite("CS332", "CS130")));
+        assertTrue(database.getRequisitesFor(AcademicDatabase.RequisiteKind.AND, "BGRK441")
+                .contains(new AcademicDatabase.Requisite("BGRK441", "BGRK332")));
+    }
+
+    @Test
+    void testPeopleAndMajors() {
+        assertEquals("St. John", database.getTeacher(6).lastName());
+        AcademicDatabase.Major cs = database.getMajor("CS");
+        assertEquals("Computer Science", cs.title());
+        assertEquals("SITC", cs.departmentId());
+        assertEquals(128, cs.hours());
+        assertEquals(List.of("CS"), database.getMajorsForStudent(80));
+        assertNull(database.getEnrollmentsForStudent(1).get(0).grade());
+        assertEquals("Computing Theory", database.getConcentrationsForMajor("CS").get(0).title());
+    }
+
+    @Test
+    void testUnreadableRowsAreReported() {
+        AcademicTableReader reader = new AcademicTableReader();
+        Map<String, List<String[]>> tables = reader.parse(List.of(
+                "Table: course",
+                "id department title num hrs",
+                "CS120 CS Intro 120 3",
+                "broken",
+                "Table: student",
+                "id firstname lastname",
+                "x Ann Lee"));
+        AcademicDatabase db = AcademicDatabase.fromTables(tables);
+        assertEquals(1, reader.getWarnings().size());
+        assertEquals(1, db.getWarnings().size());
+        assertEquals("Intro", db.getCourse("cs 120").title());
+        assertTrue(db.getVersion() > database.getVersion());
+    }
+}
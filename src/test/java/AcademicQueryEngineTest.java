@@ -0,0 +1,52 @@
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class AcademicQueryEngineTest {
+
+    private static AcademicCatalog catalog;
+
+    @BeforeAll
+    static void load() throws IOException {
+        catalog = AcademicCatalog.of(AcademicDatabase.load(Path.of("acu_database.txt")));
+    }
+
+    @Test
+    void testCompoundQueryJoinsCollegeAndOpenSections() {
+        List<AcademicQueryEngine.CourseMatch> matches = catalog.queries().findCourses(
+                new AcademicQueryEngine.CourseQuery("cosae", null, 3, 3, "fall 2025", true, null));
+        assertFalse(matches.isEmpty());
+        for (AcademicQueryEngine.CourseMatch match : matches) {
+            assertEquals(3, match.course().hours());
+            AcademicDatabase.Department department = catalog.database().getDepartment(match.course().departmentId());
+            assertEquals("COSAE", department.collegeId());
+            assertFalse(match.sections().isEmpty());
+            for (AcademicDatabase.Section section : match.sections()) {
+                assertEquals("Fall 2025", section.term());
+                assertTrue(catalog.schedule().getOpenSeats(section.crn()) > 0);
+            }
+        }
+        assertTrue(matches.stream().anyMatch(match -> match.course().id().equals("CHEM133")));
+    }
+
+    @Test
+    void testMajorAndDepartmentFilters() {
+        List<AcademicQueryEngine.CourseMatch> matches = catalog.queries().findCourses(
+                new AcademicQueryEngine.CourseQuery(null, "CS", null, null, null, false, "CS"));
+        assertFalse(matches.isEmpty());
+        for (AcademicQueryEngine.CourseMatch match : matches) {
+            assertEquals("CS", match.course().departmentId());
+            assertTrue(catalog.database().getCoursesForMajor("CS").contains(match.course().id()));
+            assertTrue(match.sections().isEmpty());
+        }
+        assertTrue(catalog.queries().findCourses(
+                new AcademicQueryEngine.CourseQuery(null, null, null, null, null, false, "NOPE")).isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AcademicSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripMatchesTextParse() throws IOException {
+        Path snapshotFile = tempDir.resolve("acu.snapshot");
+        AcademicSnapshot.compile(Path.of("acu_database.txt"), snapshotFile);
+        AcademicSnapshot loaded = AcademicSnapshot.load(snapshotFile);
+
+        AcademicTableReader reader = new AcademicTableReader();
+        Map<String, List<String[]>> expected = reader.read(Path.of("acu_database.txt"));
+        assertEquals(expected.keySet(), loaded.getTables().keySet());
+        for (String table : expected.keySet()) {
+            List<String[]> rows = loaded.getTables().get(table);
+            assertEquals(expected.get(table).size(), rows.size(), table);
+            for (int i = 0; i < rows.size(); i++) {
+                assertArrayEquals(expected.get(table).get(i), rows.get(i), table + " row " + i);
+            }
+            assertArrayEquals(reader.getHeaders().get(table), loaded.getHeaders().get(table));
+        }
+
+        AcademicDatabase database = loaded.toDatabase();
+        assertEquals("Don Morris110", database.getSection(10120).room());
+        assertEquals("Cost Accounting 1", database.getCourse("ACCT302").title());
+    }
+
+    @Test
+    void testRecompilesWhenSourceChanges() throws IOException {
+        Path source = tempDir.resolve("acu.txt");
+        Path snapshotFile = tempDir.resolve("acu.snapshot");
+        Files.writeString(source, "Table: course\nid department title num hrs\nCS120 CS Programming I 120 3\n");
+        AcademicSnapshot first = AcademicSnapshot.loadOrCompile(source, snapshotFile);
+        assertTrue(first.isCurrent(source));
+
+        Files.writeString(source, "Table: course\nid department title num hrs\nCS130 CS Programming II 130 3\n");
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 2000));
+        assertFalse(AcademicSnapshot.load(snapshotFile).isCurrent(source));
+        AcademicSnapshot second = AcademicSnapshot.loadOrCompile(source, snapshotFile);
+        assertEquals("CS130", second.getTables().get("course").get(0)[0]);
+
+        Files.writeString(snapshotFile, "garbage");
+        assertEquals("CS130", AcademicSnapshot.loadOrCompile(source, snapshotFile).getTables().get("course").get(0)[0]);
+    }
+}
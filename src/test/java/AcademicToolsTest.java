@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class AcademicToolsTest {
+
+    private static AcademicTools tools;
+
+    @BeforeAll
+    static void load() throws IOException {
+        tools = new AcademicTools(AcademicDatabase.load(Path.of("acu_database.txt")));
+    }
+
+    @Test
+    void testLookupCourse() {
+        JSONObject course = new JSONObject(tools.lookupCourse(new JSONObject().put("course_id", "cs 332")));
+        assertEquals("CS332", course.getString("id"));
+        assertTrue(course.getJSONArray("required").toList().contains("CS130"));
+
+        JSONObject missing = new JSONObject(tools.lookupCourse(new JSONObject().put("course_id", "NOPE999")));
+        assertTrue(missing.has("error"));
+    }
+
+    @Test
+    void testListSectionsFiltersByTerm() {
+        JSONObject result = new JSONObject(tools.listSections(new JSONObject()
+                .put("course_id", "CHEM133").put("term", "Summer 2025")));
+        assertEquals(1, result.getJSONArray("sections").length());
+        assertEquals(11015, result.getJSONArray("sections").getJSONObject(0).getInt("crn"));
+    }
+
+    @Test
+    void testCheckPrereqsWithCompletedCourses() {
+        JSONObject result = new JSONObject(tools.checkPrereqs(new JSONObject()
+                .put("course_id", "CS332")
+                .put("completed_courses", new org.json.JSONArray().put("CS 130"))));
+        assertFalse(result.getBoolean("eligible"));
+        assertEquals("MATH185", result.getJSONArray("missing_required").getString(0));
+    }
+
+    @Test
+    void testStudentScheduleOfTheSender() {
+        JSONObject result = new JSONObject(tools.studentSchedule(1));
+        assertEquals(1, result.getInt("student_id"));
+        assertTrue(result.getJSONArray("sections").length() > 0);
+    }
+
+    @Test
+    void testOtherStudentsCannotBeLookedUp() {
+        // Bound to student 1, a request naming student 2 still answers for student 1
+        JSONObject bound = new JSONObject(call(tools.createRegistry(1), "student_schedule",
+                new JSONObject().put("student_name", "Stu2 Student2").put("student_id", 2)));
+        assertEquals(1, bound.getInt("student_id"));
+
+        // A sender outside the student directory gets no student records at all
+        JSONObject unknown = new JSONObject(call(tools.createRegistry(), "student_schedule",
+                new JSONObject().put("student_name", "Stu2 Student2")));
+        assertTrue(unknown.getString("error").contains("not available"));
+        assertFalse(unknown.has("student_id"));
+    }
+
+    @Test
+    void testCheckConflictsAgainstStudentSchedule() {
+        // Student 1 takes 10001 and 10002, both Spring 2025 on MWF
+        JSONObject result = new JSONObject(tools.checkConflicts(1, new JSONObject().put("crn", 10002)));
+        assertFalse(result.getBoolean("fits_schedule"));
+        assertEquals(10001, result.getJSONArray("conflicts").getJSONObject(0).getInt("conflicts_with_crn"));
+    }
+
+    @Test
+    void testDegreeAuditListsMajorProgress() {
+        JSONObject result = new JSONObject(tools.degreeAudit(80));
+        JSONObject major = result.getJSONArray("majors").getJSONObject(0);
+        assertEquals("CS", major.getString("major_id"));
+        assertTrue(major.getJSONArray("remaining").length() > 0);
+    }
+
+    private static String call(FunctionToolRegistry registry, String name, JSONObject arguments) {
+        JSONArray toolCalls = new JSONArray().put(new JSONObject()
+                .put("id", "call_1")
+                .put("type", "function")
+                .put("function", new JSONObject().put("name", name).put("arguments", arguments.toString())));
+        List<JSONObject> outputs = registry.executeAsync(toolCalls).join();
+        return outputs.get(0).getString("output");
+    }
+}
@@ -0,0 +1,45 @@
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AssistantRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testEntriesSurviveReload() {
+        File file = dir.resolve("registry.properties").toFile();
+        String key = AssistantRegistry.keyFor("gpt-4o", "Advise ACU students.");
+        new AssistantRegistry(file).put(key, new AssistantRegistry.Entry("asst_1", "vs_1", "file_1"));
+
+        AssistantRegistry reloaded = new AssistantRegistry(file);
+        assertEquals(new AssistantRegistry.Entry("asst_1", "vs_1", "file_1"), reloaded.get(key));
+
+        reloaded.put(key, new AssistantRegistry.Entry("asst_2", null, null));
+        assertEquals(new AssistantRegistry.Entry("asst_2", null, null), new AssistantRegistry(file).get(key));
+    }
+
+    @Test
+    void testChangedInstructionsOrRemovalInvalidateTheEntry() {
+        File file = dir.resolve("registry.properties").toFile();
+        AssistantRegistry registry = new AssistantRegistry(file);
+        String key = AssistantRegistry.keyFor("gpt-4o", "Advise ACU students.");
+        registry.put(key, new AssistantRegistry.Entry("asst_1", "vs_1", "file_1"));
+
+        String edited = AssistantRegistry.keyFor("gpt-4o", "Advise ACU students briefly.");
+        assertNotEquals(key, edited);
+        assertNotEquals(key, AssistantRegistry.keyFor("gpt-4o-mini", "Advise ACU students."));
+        assertNull(registry.get(edited));
+
+        registry.remove(key);
+        assertNull(registry.get(key));
+        assertNull(new AssistantRegistry(file).get(key));
+    }
+}
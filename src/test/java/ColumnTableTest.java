@@ -0,0 +1,49 @@
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class ColumnTableTest {
+
+    private static final ColumnTable.Dictionary SUBJECTS = new ColumnTable.Dictionary();
+
+    private static final ColumnTable COURSES = new ColumnTable.Builder("course", 4)
+            .ints("hours", new int[]{3, 4, 3, 1})
+            .strings("subject", new String[]{"CS", "CHEM", "CHEM", "ART"}, SUBJECTS)
+            .build();
+
+    private static final ColumnTable SUBJECT_LIST = new ColumnTable.Builder("subject", 3)
+            .strings("id", new String[]{"CHEM", "CS", "MATH"}, SUBJECTS)
+            .strings("college", new String[]{"COSAE", "SITC", "COSAE"})
+            .build();
+
+    @Test
+    void testScanAppliesPredicatesInTurn() {
+        assertArrayEquals(new int[]{0, 2}, COURSES.scan(List.of(
+                new ColumnTable.Predicate("hours", ColumnTable.Op.EQ, 3))));
+        assertArrayEquals(new int[]{2}, COURSES.scan(List.of(
+                new ColumnTable.Predicate("hours", ColumnTable.Op.LE, 3),
+                COURSES.eq("subject", "CHEM"))));
+        assertArrayEquals(new int[]{1, 3}, COURSES.scan(List.of(
+                new ColumnTable.Predicate("hours", ColumnTable.Op.IN, 4, 1, 9),
+                new ColumnTable.Predicate("hours", ColumnTable.Op.NE, 0))));
+        assertEquals(0, COURSES.scan(List.of(COURSES.eq("subject", "BIOL"))).length);
+        assertEquals(4, COURSES.scan(List.of()).length);
+    }
+
+    @Test
+    void testHashJoinMatchesSharedDictionaryCodes() {
+        int[] cosae = SUBJECT_LIST.scan(List.of(SUBJECT_LIST.eq("college", "COSAE")));
+        int[][] pairs = ColumnTable.hashJoin(COURSES, COURSES.all(), "subject", SUBJECT_LIST, cosae, "id");
+        assertEquals(2, pairs[0].length);
+        for (int i = 0; i < pairs[0].length; i++) {
+            assertEquals("CHEM", COURSES.getString("subject", pairs[0][i]));
+            assertEquals("CHEM", SUBJECT_LIST.getString("id", pairs[1][i]));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnTable.hashJoin(COURSES, COURSES.all(), "subject", SUBJECT_LIST, cosae, "college"));
+    }
+}
@@ -0,0 +1,51 @@
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class CourseKeyIndexTest {
+
+    @Test
+    void testSpellingsShareOneId() {
+        CourseKeyIndex index = new CourseKeyIndex(List.of("CS332", "CHEM 133", "chem133", "MATH 185"));
+        assertEquals(3, index.size());
+        assertEquals(0, index.idOf("cs 332"));
+        assertEquals(1, index.idOf("CHEM133"));
+        assertEquals(1, index.idOf(" Chem 133 "));
+        assertEquals("CHEM133", index.keyOf(index.idOf("chem 133")));
+        assertEquals(-1, index.idOf("CHEM13"));
+        assertEquals(-1, index.idOf("CHEM1333"));
+        assertFalse(index.contains(""));
+    }
+
+    @Test
+    void testEveryKeyResolvesToItsOwnId() {
+        List<String> references = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            references.add("SUBJ " + i);
+        }
+        CourseKeyIndex index = new CourseKeyIndex(references);
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, index.idOf("subj" + i));
+        }
+        assertEquals(-1, new CourseKeyIndex(List.of()).idOf("CS120"));
+    }
+
+    @Test
+    void testDatabaseInternsEveryReference() throws IOException {
+        AcademicDatabase database = AcademicDatabase.load(Path.of("acu_database.txt"));
+        CourseKeyIndex keys = database.getCourseKeys();
+        for (AcademicDatabase.Course course : database.getCourses()) {
+            assertEquals(course, database.getCourse(keys.idOf(course.id())));
+        }
+        for (AcademicDatabase.Requisite requisite : database.getRequisites(AcademicDatabase.RequisiteKind.OR)) {
+            assertTrue(keys.contains(requisite.requiredId()));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+class DegreeAuditEngineTest {
+
+    private static final LocalDate MIDTERM = LocalDate.of(2025, 3, 1);
+
+    private static AcademicCatalog catalog(String firstGrade) {
+        List<String> lines = new ArrayList<>(List.of(
+                "Table: course", "id department title num hrs",
+                "CS120 CS Intro 120 3", "CS130 CS Data Structures 130 3",
+                "CS230 CS Algorithms 230 3", "CS332 CS Operating Systems 332 4",
+                "Table: major", "id title deptID reqtext hrs gpa",
+                "CS Computer Science SITC Minimum grade of C 128 2.0",
+                "Table: major_class", "majorID classID",
+                "CS CS120", "CS CS130", "CS CS230", "CS CS332",
+                "Table: student", "id firstname lastname", "1 Ann Lee",
+                "Table: student_major", "studentID major", "1 CS",
+                "Table: and_prereq", "course prereq", "CS230 CS130", "CS332 CS230",
+                "Table: section", "crn max room courseID term startdate enddate days",
+                "10 30 A1 CS120 Fall 2024 2024-08-20 2024-12-10 MWF",
+                "11 30 A1 CS130 Spring 2025 2025-01-14 2025-05-10 TR",
+                "Table: student_section", "studentID sectionID grade",
+                "1 10 " + firstGrade, "1 11 null"));
+        return AcademicCatalog.of(AcademicDatabase.fromTables(new AcademicTableReader().parse(lines)));
+    }
+
+    @Test
+    void testAuditSplitsCompletedInProgressAndRemaining() {
+        AcademicCatalog catalog = catalog("null");
+        DegreeAuditEngine.Audit audit = new DegreeAuditEngine(() -> catalog).audit(1, MIDTERM);
+
+        assertEquals(List.of("CS120"), audit.completed());
+        assertEquals(List.of("CS130"), audit.inProgress());
+        assertEquals(3, audit.completedHours());
+        DegreeAuditEngine.MajorProgress major = audit.majors().get(0);
+        assertEquals(List.of("CS230", "CS332"), major.remaining());
+        assertEquals(7, major.remainingHours());
+        assertEquals(List.of("CS230"), major.eligibleNext());
+    }
+
+    @Test
+    void testFailingGradeDoesNotComplete() {
+        AcademicCatalog catalog = catalog("F");
+        DegreeAuditEngine.Audit audit = new DegreeAuditEngine(() -> catalog).audit(1, MIDTERM);
+        assertEquals(List.of(), audit.completed());
+        assertEquals(List.of("CS120", "CS230", "CS332"), audit.majors().get(0).remaining());
+        assertNull(new DegreeAuditEngine(() -> catalog).audit(99, MIDTERM));
+    }
+
+    @Test
+    void testCacheIsDroppedWhenCatalogChanges() {
+        AtomicReference<AcademicCatalog> current = new AtomicReference<>(catalog("null"));
+        DegreeAuditEngine engine = new DegreeAuditEngine(current::get);
+
+        DegreeAuditEngine.Audit first = engine.audit(1, MIDTERM);
+        assertSame(first, engine.audit(1, MIDTERM));
+        assertEquals(1, engine.cachedCount());
+
+        current.set(catalog("null"));
+        assertNotSame(first, engine.audit(1, MIDTERM));
+        assertEquals(first, engine.audit(1, MIDTERM));
+    }
+}
@@ -0,0 +1,84 @@
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileUploadCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testHitAfterPutSurvivesReload() throws IOException {
+        File cacheFile = dir.resolve("uploads.properties").toFile();
+        File upload = Files.writeString(dir.resolve("catalog.txt"), "COSC 120").toFile();
+        String key = FileUploadCache.keyFor(upload, "assistants");
+
+        FileUploadCache cache = new FileUploadCache(cacheFile);
+        assertNull(cache.get(key));
+        cache.put(key, "file-1");
+        assertEquals("file-1", cache.get(key));
+
+        FileUploadCache reloaded = new FileUploadCache(cacheFile);
+        assertEquals("file-1", reloaded.get(key));
+        assertFalse(reloaded.isVerified("file-1"));
+    }
+
+    @Test
+    void testChangedContentOrPurposeMisses() throws IOException {
+        Path path = dir.resolve("catalog.txt");
+        File upload = Files.writeString(path, "COSC 120").toFile();
+        String key = FileUploadCache.keyFor(upload, "assistants");
+        FileUploadCache cache = new FileUploadCache(dir.resolve("uploads.properties").toFile());
+        cache.put(key, "file-1");
+
+        assertNull(cache.get(FileUploadCache.keyFor(upload, "vision")));
+        Files.writeString(path, "COSC 121");
+        String changed = FileUploadCache.keyFor(upload, "assistants");
+        assertNotEquals(key, changed);
+        assertNull(cache.get(changed));
+    }
+
+    @Test
+    void testRemoveForgetsOnlyThatFile() {
+        FileUploadCache cache = new FileUploadCache(dir.resolve("uploads.properties").toFile());
+        cache.put("assistants:a", "file-a");
+        cache.put("assistants:b", "file-b");
+        cache.markVerified("file-a");
+        cache.markVerified("file-b");
+
+        cache.remove("assistants:a");
+
+        assertNull(cache.get("assistants:a"));
+        assertFalse(cache.isVerified("file-a"));
+        assertEquals("file-b", cache.get("assistants:b"));
+        assertTrue(cache.isVerified("file-b"));
+    }
+
+    @Test
+    void testRemoveFileIdDropsEveryEntryForIt() {
+        File cacheFile = dir.resolve("uploads.properties").toFile();
+        FileUploadCache cache = new FileUploadCache(cacheFile);
+        cache.put("assistants:a", "file-a");
+        cache.put("user_data:a", "file-a");
+        cache.put("assistants:b", "file-b");
+        cache.markVerified("file-a");
+
+        cache.removeFileId("file-a");
+
+        assertNull(cache.get("assistants:a"));
+        assertNull(cache.get("user_data:a"));
+        assertFalse(cache.isVerified("file-a"));
+        assertNull(new FileUploadCache(cacheFile).get("user_data:a"));
+        assertEquals("file-b", cache.get("assistants:b"));
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class FunctionToolRegistryTest {
+
+    private static JSONObject call(String id, String name, String arguments) {
+        return new JSONObject()
+                .put("id", id)
+                .put("type", "function")
+                .put("function", new JSONObject().put("name", name).put("arguments", arguments));
+    }
+
+    @Test
+    void testCallsRunInParallelAndKeepOrder() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        FunctionToolRegistry.Handler waitForOther = arguments -> {
+            bothStarted.countDown();
+            // Only returns if the other call is running at the same time
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return "echo " + arguments.getString("value");
+        };
+        FunctionToolRegistry registry = new FunctionToolRegistry(Executors.newFixedThreadPool(2))
+                .register("echo", "Echo a value", new JSONObject().put("type", "object"), waitForOther);
+
+        List<JSONObject> outputs = registry.executeAsync(new JSONArray()
+                .put(call("call_1", "echo", "{\"value\":\"a\"}"))
+                .put(call("call_2", "echo", "{\"value\":\"b\"}"))).join();
+
+        assertEquals("call_1", outputs.get(0).getString("tool_call_id"));
+        assertEquals("echo a", outputs.get(0).getString("output"));
+        assertEquals("echo b", outputs.get(1).getString("output"));
+        assertEquals("function", registry.getDefinitions().get(0).getString("type"));
+    }
+
+    @Test
+    void testFailuresBecomeErrorOutputs() {
+        FunctionToolRegistry registry = new FunctionToolRegistry()
+                .register("boom", "Always fails", new JSONObject(), arguments -> {
+                    throw new IllegalStateException("no data");
+                });
+
+        List<JSONObject> outputs = registry.executeAsync(new JSONArray()
+                .put(call("call_1", "boom", "{}"))
+                .put(call("call_2", "missing", "{}"))
+                .put(call("call_3", "boom", "not json"))).join();
+
+        assertTrue(outputs.get(0).getString("output").contains("no data"));
+        assertTrue(outputs.get(1).getString("output").contains("Unknown function"));
+        assertTrue(outputs.get(2).getString("output").contains("Invalid arguments"));
+    }
+
+    @Test
+    void testPendingToolCalls() {
+        JSONArray calls = new JSONArray().put(call("call_1", "echo", "{}"));
+        JSONObject run = new JSONObject()
+                .put("status", "requires_action")
+                .put("required_action", new JSONObject()
+                        .put("type", "submit_tool_outputs")
+                        .put("submit_tool_outputs", new JSONObject().put("tool_calls", calls)));
+
+        assertEquals(1, FunctionToolRegistry.pendingToolCalls(run).length());
+        assertNull(FunctionToolRegistry.pendingToolCalls(new JSONObject().put("status", "completed")));
+        assertNull(FunctionToolRegistry.pendingToolCalls(null));
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MultipartBodyPublisherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] drain(HttpRequest.BodyPublisher publisher) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] chunk = new byte[item.remaining()];
+                item.get(chunk);
+                out.write(chunk, 0, chunk.length);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.join();
+        return out.toByteArray();
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    @Test
+    void testFileBytesArePreservedExactly() throws IOException {
+        byte[] content = new byte[300_000];
+        new Random(42).nextBytes(content);
+        content[10] = '\r';
+        content[11] = '\n';
+        Path file = tempDir.resolve("catalog.bin");
+        Files.write(file, content);
+
+        MultipartBodyPublisher multipart = new MultipartBodyPublisher()
+                .withField("purpose", "assistants")
+                .withFile("file", file, "application/octet-stream");
+        HttpRequest.BodyPublisher body = multipart.build(false);
+        byte[] sent = drain(body);
+
+        assertEquals(sent.length, body.contentLength(), "fixed-length body must announce its exact size");
+        int start = indexOf(sent, "Content-Type: application/octet-stream\r\n\r\n".getBytes(StandardCharsets.US_ASCII))
+                + "Content-Type: application/octet-stream\r\n\r\n".length();
+        byte[] filePart = new byte[content.length];
+        System.arraycopy(sent, start, filePart, 0, content.length);
+        assertArrayEquals(content, filePart);
+
+        String boundary = multipart.contentType().substring(multipart.contentType().indexOf("boundary=") + 9);
+        String tail = new String(sent, sent.length - boundary.length() - 8, boundary.length() + 8, StandardCharsets.US_ASCII);
+        assertEquals("\r\n--" + boundary + "--\r\n", tail);
+    }
+
+    @Test
+    void testChunkedModeHasNoContentLength() throws IOException {
+        MultipartBodyPublisher multipart = new MultipartBodyPublisher()
+                .withFile("file", Path.of("acu_database.txt"), "text/plain");
+        HttpRequest.BodyPublisher body = multipart.build(true);
+
+        assertEquals(-1, body.contentLength());
+        byte[] sent = drain(body);
+        assertTrue(sent.length > Files.size(Path.of("acu_database.txt")));
+    }
+
+    @Test
+    void testBoundariesAreRandom() {
+        assertNotEquals(new MultipartBodyPublisher().contentType(), new MultipartBodyPublisher().contentType());
+    }
+}
@@ -0,0 +1,190 @@
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Engine tests that answer every request from a stub transport, so they run
+ * without an API key or network.
+ */
+class OpenAiAssistantEngineStubTest {
+
+    /**
+     * Records each request and answers it with a fixed status and body.
+     */
+    private static class StubTransport implements RequestGovernor.Transport {
+
+        final List<HttpRequest> requests = new ArrayList<>();
+        private final int status;
+        private final String body;
+
+        StubTransport(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            requests.add(request);
+            return CompletableFuture.completedFuture(new StubHttpResponse<>(request, status, Map.of(), (T) body));
+        }
+    }
+
+    /**
+     * Starts every streaming request with a run.created event and then never
+     * finishes it; any other request is answered at once.
+     */
+    private static class HangingStreamTransport extends StubTransport {
+
+        private boolean streamCancelled;
+
+        HangingStreamTransport() {
+            super(200, "{\"id\":\"run_1\",\"status\":\"cancelling\"}");
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            if (!request.uri().getPath().endsWith("/runs")) {
+                return super.sendAsync(request, handler);
+            }
+            requests.add(request);
+            HttpResponse.BodySubscriber<T> subscriber = handler.apply(new HttpResponse.ResponseInfo() {
+                @Override
+                public int statusCode() {
+                    return 200;
+                }
+
+                @Override
+                public HttpHeaders headers() {
+                    return HttpHeaders.of(Map.of(), (name, value) -> true);
+                }
+
+                @Override
+                public HttpClient.Version version() {
+                    return HttpClient.Version.HTTP_1_1;
+                }
+            });
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                    streamCancelled = true;
+                }
+            });
+            String event = "event: thread.run.created\ndata: {\"id\":\"run_1\",\"status\":\"queued\"}\n\n";
+            subscriber.onNext(List.of(ByteBuffer.wrap(event.getBytes(StandardCharsets.UTF_8))));
+            return new CompletableFuture<>();
+        }
+    }
+
+    private static OpenAiAssistantEngine engine(StubTransport transport) {
+        return new OpenAiAssistantEngine("test-key", 10, HttpClient.newHttpClient(),
+                new RequestGovernor(transport, 600, 10, 0, 1, System::nanoTime));
+    }
+
+    @Test
+    void testUploadSendsOnlyTheMultipartContentType(@TempDir Path dir) throws IOException {
+        File file = Files.writeString(dir.resolve("notes.txt"), "advising notes").toFile();
+        StubTransport transport = new StubTransport(200, "{\"id\":\"file-1\"}");
+
+        assertEquals("file-1", engine(transport).uploadFile(file, "assistants"));
+
+        List<String> contentTypes = transport.requests.get(0).headers().allValues("Content-Type");
+        assertEquals(1, contentTypes.size());
+        assertTrue(contentTypes.get(0).startsWith("multipart/form-data; boundary="));
+    }
+
+    @Test
+    void testJsonContentTypeOnlyOnJsonBodies() {
+        StubTransport transport = new StubTransport(200, "{\"id\":\"thread_1\",\"status\":\"queued\"}");
+        OpenAiAssistantEngine engine = engine(transport);
+        engine.createThread(List.of(), null, null);
+        engine.retrieveRun("thread_1", "run_1");
+
+        assertEquals(List.of("application/json"), transport.requests.get(0).headers().allValues("Content-Type"));
+        assertEquals(List.of(), transport.requests.get(1).headers().allValues("Content-Type"));
+    }
+
+    @Test
+    void testAsyncCallsReturnTheResponseId() {
+        StubTransport transport = new StubTransport(200, "{\"id\":\"thread_1\"}");
+
+        assertEquals("thread_1", engine(transport).createThreadAsync(List.of(), null, null).join());
+        assertEquals("thread_1", engine(transport).createThread(List.of(), null, null));
+    }
+
+    @Test
+    void testAsyncErrorsCarryStatusAndErrorFields() {
+        StubTransport transport = new StubTransport(404,
+                "{\"error\":{\"message\":\"No run found\",\"type\":\"invalid_request_error\",\"code\":\"not_found\"}}");
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> engine(transport).retrieveRunAsync("thread_1", "run_1").join());
+        OpenAiApiException error = assertInstanceOf(OpenAiApiException.class, e.getCause());
+        assertEquals(404, error.getStatusCode());
+        assertEquals("invalid_request_error", error.getErrorType());
+        assertEquals("not_found", error.getErrorCode());
+        assertFalse(error.isRateLimited());
+    }
+
+    @Test
+    void testRateLimitAndNonJsonErrorsAreMapped() {
+        CompletionException limited = assertThrows(CompletionException.class,
+                () -> engine(new StubTransport(429, "{\"error\":{\"type\":\"requests\"}}"))
+                        .createThreadAsync(List.of(), null, null).join());
+        assertTrue(assertInstanceOf(OpenAiApiException.class, limited.getCause()).isRateLimited());
+
+        CompletionException gateway = assertThrows(CompletionException.class,
+                () -> engine(new StubTransport(502, "<html>Bad gateway</html>")).retrieveRunAsync("thread_1", "run_1").join());
+        OpenAiApiException error = assertInstanceOf(OpenAiApiException.class, gateway.getCause());
+        assertTrue(error.isServerError());
+        assertNull(error.getErrorType());
+    }
+
+    @Test
+    void testBlockingCallsReturnNullOnApiErrors() {
+        StubTransport transport = new StubTransport(400, "{\"error\":{\"message\":\"bad request\"}}");
+
+        assertNull(engine(transport).createThread(List.of(), null, null));
+        assertNull(engine(transport).retrieveRun("thread_1", "run_1"));
+    }
+
+    @Test
+    void testTimedOutRunIsCancelledOnTheServer() {
+        HangingStreamTransport transport = new HangingStreamTransport();
+
+        assertNull(engine(transport).createRunStream("thread_1", "asst_1", null, null, null, null,
+                new RunStreamListener() {
+                }, 1));
+
+        assertTrue(transport.streamCancelled);
+        HttpRequest cancel = transport.requests.get(transport.requests.size() - 1);
+        assertEquals("/v1/threads/thread_1/runs/run_1/cancel", cancel.uri().getPath());
+        assertEquals("POST", cancel.method());
+    }
+}
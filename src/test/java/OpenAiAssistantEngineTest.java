@@ -1,8 +1,11 @@
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import org.json.JSONObject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -183,4 +186,27 @@ class OpenAiAssistantEngineTest {
         // Test deleting file
         assertTrue(engine.deleteResource("files", testFileId), "File deletion should succeed");
     }
+
+    @Test
+    @Order(12)
+    void testAsyncThreadLifecycle() {
+        String threadId = engine.createThreadAsync(List.of(), null, null)
+                .thenCompose(id -> engine.addMessageToThreadAsync(id, "Async test message").thenApply(messageId -> id))
+                .join();
+        assertNotNull(threadId, "Async thread creation should return a valid ID");
+
+        List<String> messages = engine.listMessagesAsync(threadId, null).join();
+        assertTrue(messages.contains("Async test message"), "Async message should be listed");
+
+        engine.deleteResourceAsync("threads", threadId).join();
+    }
+
+    @Test
+    @Order(13)
+    void testAsyncErrorIsTyped() {
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> engine.retrieveRunAsync("thread_does_not_exist", "run_does_not_exist").join());
+        assertTrue(e.getCause() instanceof OpenAiApiException, "API errors should surface as OpenAiApiException");
+        assertEquals(404, ((OpenAiApiException) e.getCause()).getStatusCode());
+    }
 }
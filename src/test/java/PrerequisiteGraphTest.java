@@ -0,0 +1,68 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class PrerequisiteGraphTest {
+
+    private static PrerequisiteGraph graph(String... lines) {
+        return new PrerequisiteGraph(AcademicDatabase.fromTables(new AcademicTableReader().parse(List.of(lines))));
+    }
+
+    @Test
+    void testClosuresFollowRequiredAndOptionalEdges() {
+        PrerequisiteGraph graph = graph(
+                "Table: and_prereq", "course prereq",
+                "C B", "B A",
+                "Table: or_prereq", "course prereq",
+                "D C", "D X",
+                "Table: coreq", "course prereq",
+                "C L");
+
+        assertEquals(List.of("A", "B"), graph.getRequiredBefore("C"));
+        assertTrue(graph.isRequiredBefore("A", "C"));
+        assertFalse(graph.isRequiredBefore("C", "D"));
+        assertEquals(List.of("A", "B", "C", "X"), graph.getAllPrerequisites("D"));
+        assertEquals(List.of("B", "C", "D"), graph.getEventuallyUnlocks("A"));
+        assertEquals(List.of("C"), graph.getUnlocks("B"));
+        assertEquals(List.of("L"), graph.getCorequisites("C"));
+        assertEquals(List.of(), graph.getRequiredBefore("UNKNOWN"));
+    }
+
+    @Test
+    void testCyclesTerminate() {
+        PrerequisiteGraph graph = graph(
+                "Table: and_prereq", "course prereq",
+                "A B", "B C", "C A", "D A");
+        assertEquals(List.of("B", "C"), graph.getRequiredBefore("A"));
+        assertEquals(List.of("A", "B", "C"), graph.getRequiredBefore("D"));
+    }
+
+    @Test
+    void testEligibility() {
+        PrerequisiteGraph graph = graph(
+                "Table: and_prereq", "course prereq",
+                "C A", "C B",
+                "Table: or_prereq", "course prereq",
+                "C X", "C Y");
+
+        PrerequisiteGraph.Eligibility missing = graph.check("C", List.of("A"));
+        assertFalse(missing.isEligible());
+        assertEquals(List.of("B"), missing.missingRequired());
+        assertEquals(List.of("X", "Y"), missing.missingOneOf());
+        assertTrue(graph.check("C", List.of("A", "B", "Y")).isEligible());
+    }
+
+    @Test
+    void testRealCatalog() throws IOException {
+        PrerequisiteGraph graph = new PrerequisiteGraph(AcademicDatabase.load(Path.of("acu_database.txt")));
+        assertTrue(graph.getRequiredBefore("CS 332").containsAll(List.of("CS120", "CS130", "MATH124", "MATH185")));
+        assertTrue(graph.getEventuallyUnlocks("CS120").contains("CS332"));
+        assertTrue(graph.getRequired("CHEM 133").contains("MATH124"));
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class RequestGovernorTest {
+
+    private static final HttpRequest GET = HttpRequest.newBuilder(URI.create("https://api.test/runs/1")).GET().build();
+    private static final HttpRequest POST = HttpRequest.newBuilder(URI.create("https://api.test/runs"))
+            .POST(HttpRequest.BodyPublishers.noBody()).build();
+
+    private static HttpHeaders headers(Map<String, List<String>> values) {
+        return HttpHeaders.of(values, (name, value) -> true);
+    }
+
+    /**
+     * Answers each attempt with the next scripted status, or fails it with an
+     * IOException for status 0.
+     */
+    private static class ScriptedTransport implements RequestGovernor.Transport {
+
+        private final Deque<Integer> statuses;
+        private final Map<String, List<String>> headers;
+        private int calls;
+
+        ScriptedTransport(Map<String, List<String>> headers, Integer... statuses) {
+            this.statuses = new ArrayDeque<>(List.of(statuses));
+            this.headers = headers;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            calls++;
+            int status = statuses.pop();
+            if (status == 0) {
+                return CompletableFuture.failedFuture(new IOException("connection reset"));
+            }
+            return CompletableFuture.completedFuture(new StubHttpResponse<>(request, status, headers, (T) ""));
+        }
+    }
+
+    @Test
+    void testParsesOpenAiResetDurations() {
+        assertEquals(20, RequestGovernor.parseDurationMillis("20ms"));
+        assertEquals(1000, RequestGovernor.parseDurationMillis("1s"));
+        assertEquals(360_000, RequestGovernor.parseDurationMillis("6m0s"));
+        assertEquals(1500, RequestGovernor.parseDurationMillis("1.5s"));
+        assertEquals(3_723_500, RequestGovernor.parseDurationMillis("1h2m3.5s"));
+        assertEquals(-1, RequestGovernor.parseDurationMillis("soon"));
+    }
+
+    @Test
+    void testRetryAfterPrefersMillisecondHeader() {
+        assertEquals(250, RequestGovernor.retryAfterMillis(headers(Map.of(
+                "retry-after-ms", List.of("250"),
+                "retry-after", List.of("3")))));
+        assertEquals(3000, RequestGovernor.retryAfterMillis(headers(Map.of("Retry-After", List.of("3")))));
+        assertEquals(-1, RequestGovernor.retryAfterMillis(headers(Map.of())));
+    }
+
+    @Test
+    void testTokenBucketQueuesRequestsBeyondBurst() {
+        AtomicLong clock = new AtomicLong();
+        RequestGovernor governor = new RequestGovernor(new ScriptedTransport(Map.of()), 60, 2, 0, 1, clock::get);
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        assertEquals(0, governor.reserve());
+        assertEquals(0, governor.reserve());
+        assertEquals(second, governor.reserve());
+        assertEquals(2 * second, governor.reserve());
+
+        clock.addAndGet(2 * second);
+        assertEquals(second, governor.reserve());
+    }
+
+    @Test
+    void testRateLimitHeadersAdjustTheBucket() {
+        AtomicLong clock = new AtomicLong();
+        RequestGovernor governor = new RequestGovernor(new ScriptedTransport(Map.of()), 60, 1, 0, 1, clock::get);
+
+        governor.observe(headers(Map.of(
+                "x-ratelimit-limit-requests", List.of("120"),
+                "x-ratelimit-remaining-requests", List.of("0"),
+                "x-ratelimit-reset-requests", List.of("3s"))));
+        assertEquals(TimeUnit.SECONDS.toNanos(3), governor.reserve());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertEquals(0, governor.reserve());
+        // 120 requests a minute refill one token every half second
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), governor.reserve());
+    }
+
+    @Test
+    void testRateLimitedPostIsRetriedAfterRetryAfter() {
+        ScriptedTransport transport = new ScriptedTransport(Map.of("retry-after-ms", List.of("5")), 429, 200);
+        RequestGovernor governor = new RequestGovernor(transport, 600, 10, 3, 1, System::nanoTime);
+
+        HttpResponse<String> response = governor.send(POST, HttpResponse.BodyHandlers.ofString()).join();
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, transport.calls);
+    }
+
+    @Test
+    void testServerErrorsAreRetriedOnlyForIdempotentRequests() {
+        ScriptedTransport post = new ScriptedTransport(Map.of(), 500, 200);
+        RequestGovernor postGovernor = new RequestGovernor(post, 600, 10, 3, 1, System::nanoTime);
+        assertEquals(500, postGovernor.send(POST, HttpResponse.BodyHandlers.ofString()).join().statusCode());
+        assertEquals(1, post.calls);
+
+        ScriptedTransport get = new ScriptedTransport(Map.of(), 503, 0, 200);
+        RequestGovernor getGovernor = new RequestGovernor(get, 600, 10, 3, 1, System::nanoTime);
+        assertEquals(200, getGovernor.send(GET, HttpResponse.BodyHandlers.ofString()).join().statusCode());
+        assertEquals(3, get.calls);
+    }
+
+    @Test
+    void testRetriesStopAtTheLimit() {
+        ScriptedTransport transport = new ScriptedTransport(Map.of(), 503, 503, 503, 200);
+        RequestGovernor governor = new RequestGovernor(transport, 600, 10, 2, 1, System::nanoTime);
+
+        assertEquals(503, governor.send(GET, HttpResponse.BodyHandlers.ofString()).join().statusCode());
+        assertEquals(3, transport.calls);
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ResponseLogTest {
+
+    @Test
+    void testKeepsOnlyNewestEntriesInOrder() {
+        ResponseLog log = new ResponseLog(3);
+        for (int i = 1; i <= 5; i++) {
+            log.add("run", "r" + i);
+        }
+        assertEquals(List.of("r3", "r4", "r5"), log.get("run"));
+        assertEquals("r5", log.latest("run"));
+        assertNull(log.latest("thread"));
+        assertTrue(log.get("thread").isEmpty());
+    }
+
+    @Test
+    void testDisabledSampledAndTruncated() {
+        ResponseLog log = new ResponseLog(10);
+        log.setEnabled(false);
+        log.add("run", "ignored");
+        assertTrue(log.getCategories().isEmpty());
+
+        log.setEnabled(true);
+        log.setSampleEvery(2);
+        for (int i = 0; i < 6; i++) {
+            log.add("run", "r" + i);
+        }
+        assertEquals(List.of("r0", "r2", "r4"), log.get("run"));
+
+        log.setSampleEvery(1);
+        log.setMaxPayloadChars(4);
+        log.add("thread", "0123456789");
+        assertEquals("0123...[6 chars truncated]", log.latest("thread"));
+    }
+
+    @Test
+    void testConcurrentWritersNeverExceedCapacity() throws InterruptedException {
+        ResponseLog log = new ResponseLog(50);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int writer = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    log.add("run", writer + ":" + i);
+                }
+            });
+            writers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : writers) {
+            thread.join();
+        }
+        assertEquals(50, log.get("run").size());
+    }
+}
@@ -0,0 +1,41 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RowSearchIndexTest {
+
+    @Test
+    void testRanksRarerTermsHigher() {
+        AcademicTableReader reader = new AcademicTableReader();
+        Map<String, List<String[]>> rows = reader.parse(List.of(
+                "Table: course",
+                "id department title num hrs",
+                "CS120 CS Programming I 120 3",
+                "CS130 CS Programming II 130 3",
+                "MATH185 MATH Calculus I 185 3"));
+        RowSearchIndex index = new RowSearchIndex(rows, reader.getHeaders());
+
+        List<RowSearchIndex.Hit> hits = index.search("Is calculus offered?", 5);
+        assertEquals(1, hits.size());
+        assertEquals("course: id=MATH185, department=MATH, title=Calculus I, num=185, hrs=3", hits.get(0).text());
+
+        assertEquals("course", index.search("CS 130", 1).get(0).table());
+        assertTrue(index.search("CS 130", 1).get(0).text().contains("id=CS130"));
+        assertEquals(List.of(), index.search("the of", 5));
+    }
+
+    @Test
+    void testFindsCatalogRows() throws IOException {
+        RowSearchIndex index = RowSearchIndex.load(Path.of("acu_database.txt"));
+        List<RowSearchIndex.Hit> hits = index.search("What are the prerequisites for CHEM 133?", 10);
+
+        assertEquals(10, hits.size());
+        assertTrue(hits.stream().anyMatch(hit -> hit.text().startsWith("course: id=CHEM133")));
+        assertTrue(hits.get(0).score() >= hits.get(9).score());
+    }
+}
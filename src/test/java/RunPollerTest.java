@@ -0,0 +1,77 @@
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RunPollerTest {
+
+    @Test
+    void testPollsUntilTerminalStatus() {
+        AtomicInteger polls = new AtomicInteger();
+        RunPoller poller = new RunPoller((threadId, runId) -> {
+            String status = polls.incrementAndGet() < 3 ? "in_progress" : "completed";
+            return CompletableFuture.completedFuture("{\"id\":\"" + runId + "\",\"status\":\"" + status + "\"}");
+        });
+
+        JSONObject run = poller.await("thread", "run_1", PollingStrategy.fixed(5), Duration.ofSeconds(5)).join();
+        assertEquals("completed", run.getString("status"));
+        assertEquals(3, polls.get());
+        poller.shutdown();
+    }
+
+    @Test
+    void testTimesOutWhenRunNeverFinishes() {
+        RunPoller poller = new RunPoller((threadId, runId)
+                -> CompletableFuture.completedFuture("{\"status\":\"in_progress\"}"));
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> poller.await("thread", "run_2", PollingStrategy.fixed(10), Duration.ofMillis(100)).join());
+        assertTrue(e.getCause() instanceof TimeoutException);
+        poller.shutdown();
+    }
+
+    @Test
+    void testOnlyTheTopLevelStatusEndsPolling() {
+        AtomicInteger polls = new AtomicInteger();
+        RunPoller poller = new RunPoller((threadId, runId) -> {
+            String status = polls.incrementAndGet() < 2 ? "in_progress" : "completed";
+            return CompletableFuture.completedFuture("{\"last_error\":{\"status\":\"failed\"},"
+                    + "\"instructions\":\"say \\\"status\\\": \\\"done\\\"\",\"status\":\"" + status + "\"}");
+        });
+
+        JSONObject run = poller.await("thread", "run_3", PollingStrategy.fixed(5), Duration.ofSeconds(5)).join();
+        assertEquals("completed", run.getString("status"));
+        assertEquals(2, polls.get());
+        poller.shutdown();
+    }
+
+    @Test
+    void testShutdownCancelsWaitingRuns() {
+        RunPoller poller = new RunPoller((threadId, runId)
+                -> CompletableFuture.completedFuture("{\"status\":\"in_progress\"}"));
+        CompletableFuture<JSONObject> run = poller.await("thread", "run_4", PollingStrategy.fixed(10), Duration.ofSeconds(5));
+
+        poller.shutdown();
+
+        assertThrows(CancellationException.class, run::join);
+    }
+
+    @Test
+    void testAdaptiveStrategyGrowsAndIsCapped() {
+        PollingStrategy strategy = PollingStrategy.adaptive(1000);
+        assertTrue(strategy.delayMillis(0) <= 300, "first poll should be fast");
+        for (int attempt = 0; attempt < 50; attempt++) {
+            assertTrue(strategy.delayMillis(attempt) <= strategy.getMaxDelayMillis());
+        }
+        assertTrue(strategy.delayMillis(20) >= 3200, "late polls should back off");
+        assertEquals(1000, PollingStrategy.fixed(1000).delayMillis(7));
+    }
+}
@@ -0,0 +1,81 @@
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ScheduleAnalyzerTest {
+
+    private static ScheduleAnalyzer analyzer(String... lines) {
+        return new ScheduleAnalyzer(AcademicDatabase.fromTables(new AcademicTableReader().parse(List.of(lines))));
+    }
+
+    private static final String[] TERM = {
+        "Table: section", "crn max room courseID term startdate enddate days",
+        "1 2 A100 CS120 Fall 2025 2025-08-20 2025-12-10 MWF",
+        "2 30 A101 CS130 Fall 2025 2025-08-20 2025-12-10 TR",
+        "3 30 A102 CS230 Fall 2025 2025-08-20 2025-10-01 MW",
+        "4 30 A103 CS231 Fall 2025 2025-10-15 2025-12-10 M",
+        "5 30 A104 CS232 Spring 2026 2026-01-14 2026-05-10 MWF",
+        "Table: student_section", "studentID sectionID grade",
+        "7 1 null", "7 2 null", "8 1 null", "9 1 null"
+    };
+
+    @Test
+    void testDayMask() {
+        assertEquals(0b10101, ScheduleAnalyzer.dayMask("MWF"));
+        assertEquals(0b01010, ScheduleAnalyzer.dayMask("TR"));
+        assertEquals(0, ScheduleAnalyzer.dayMask(""));
+        assertEquals(0b01010, ScheduleAnalyzer.dayMask("TTh"));
+        assertEquals(0b01010, ScheduleAnalyzer.dayMask("TTH"));
+        assertEquals(0b1100000, ScheduleAnalyzer.dayMask("SaSu"));
+        assertEquals(0b1100000, ScheduleAnalyzer.dayMask("SASU"));
+        assertEquals(0b0100000, ScheduleAnalyzer.dayMask("SA"));
+        assertEquals(0b1000000, ScheduleAnalyzer.dayMask("SU"));
+    }
+
+    @Test
+    void testTuesdayThursdaySectionConflictsOnThursday() {
+        ScheduleAnalyzer analyzer = analyzer(
+                "Table: section", "crn max room courseID term startdate enddate days",
+                "10505 35 MBB120 CRIM250 Fall 2025 2025-08-20 2025-12-10 TTh",
+                "10506 35 MBB121 CRIM260 Fall 2025 2025-08-20 2025-12-10 R",
+                "Table: student_section", "studentID sectionID grade",
+                "7 10505 null", "7 10506 null");
+
+        List<ScheduleAnalyzer.Conflict> conflicts = analyzer.getScheduleConflicts(7);
+        assertEquals(1, conflicts.size());
+        assertEquals("R", conflicts.get(0).sharedDays());
+    }
+
+    @Test
+    void testSeatCounts() {
+        ScheduleAnalyzer analyzer = analyzer(TERM);
+        assertEquals(3, analyzer.getEnrolled(1));
+        assertEquals(0, analyzer.getOpenSeats(1));
+        assertEquals(29, analyzer.getOpenSeats(2));
+        assertEquals(-1, analyzer.getOpenSeats(99));
+        assertTrue(analyzer.getSectionsWithSeats("CS120", null).isEmpty());
+        assertEquals(1, analyzer.getSectionsWithSeats("cs 130", "fall 2025").size());
+    }
+
+    @Test
+    void testConflictsNeedSameTermOverlappingDatesAndSharedDay() {
+        ScheduleAnalyzer analyzer = analyzer(TERM);
+        List<ScheduleAnalyzer.Conflict> conflicts = analyzer.getConflicts(1);
+        assertEquals(List.of(3, 4), conflicts.stream().map(c -> c.other().crn()).toList());
+        assertEquals("MW", conflicts.get(0).sharedDays());
+
+        // 3 ends before 4 starts, and 2 meets on different days
+        assertTrue(analyzer.getConflicts(3, List.of(2, 4)).isEmpty());
+    }
+
+    @Test
+    void testStudentConflicts() {
+        ScheduleAnalyzer analyzer = analyzer(TERM);
+        assertEquals(1, analyzer.getConflictsForStudent(7, 3).size());
+        assertTrue(analyzer.getConflictsForStudent(7, 5).isEmpty());
+        assertTrue(analyzer.getScheduleConflicts(7).isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class StreamedRunTest {
+
+    private static StreamedRun replay(String transcript, RunStreamListener listener) {
+        StreamedRun run = new StreamedRun(listener);
+        ServerSentEventParser parser = new ServerSentEventParser(run::accept);
+        for (String line : transcript.split("\n", -1)) {
+            parser.feed(line);
+        }
+        parser.finish();
+        return run;
+    }
+
+    @Test
+    void testCompletedRunCollectsTextAndStatus() {
+        String transcript = """
+                event: thread.run.created
+                data: {"id":"run_1","object":"thread.run","status":"queued"}
+
+                event: thread.run.in_progress
+                data: {"id":"run_1","object":"thread.run","status":"in_progress"}
+
+                event: thread.message.delta
+                data: {"id":"msg_1","delta":{"content":[{"index":0,"type":"text","text":{"value":"Hello "}}]}}
+
+                event: thread.message.delta
+                data: {"id":"msg_1","delta":{"content":[{"index":0,"type":"text","text":{"value":"Stu1"}}]}}
+
+                event: thread.run.completed
+                data: {"id":"run_1","object":"thread.run","status":"completed"}
+
+                event: done
+                data: [DONE]
+                """;
+
+        List<String> deltas = new ArrayList<>();
+        List<String> statuses = new ArrayList<>();
+        StreamedRun run = replay(transcript, new RunStreamListener() {
+            @Override
+            public void onTextDelta(String delta) {
+                deltas.add(delta);
+            }
+
+            @Override
+            public void onStatus(String status) {
+                statuses.add(status);
+            }
+        });
+
+        assertEquals("run_1", run.getRunId());
+        assertTrue(run.isCompleted());
+        assertTrue(run.isDone());
+        assertEquals("Hello Stu1", run.getText());
+        assertEquals(List.of("Hello ", "Stu1"), deltas);
+        assertEquals(List.of("queued", "in_progress", "completed"), statuses);
+    }
+
+    @Test
+    void testCompletedMessageTakesPrecedenceOverDeltas() {
+        String transcript = """
+                event: thread.message.delta
+                data: {"delta":{"content":[{"index":0,"type":"text","text":{"value":"partial"}}]}}
+
+                event: thread.message.completed
+                data: {"role":"assistant","content":[{"type":"text","text":{"value":"full reply"}}]}
+                """;
+
+        assertEquals("full reply", replay(transcript, null).getText());
+    }
+
+    @Test
+    void testFailedRunKeepsLastError() {
+        String transcript = """
+                : keep-alive comment
+                event: thread.run.failed
+                data: {"id":"run_2","status":"failed","last_error":{"code":"server_error","message":"boom"}}
+                """;
+
+        StreamedRun run = replay(transcript, null);
+        assertFalse(run.isCompleted());
+        assertEquals("failed", run.getStatus());
+        assertNotNull(run.getLastError());
+        assertEquals("server_error", run.getLastError().getString("code"));
+    }
+
+    @Test
+    void testMultiLineDataIsJoined() {
+        List<String> data = new ArrayList<>();
+        ServerSentEventParser parser = new ServerSentEventParser((event, value) -> data.add(event + "=" + value));
+        parser.feed("data: first");
+        parser.feed("data:second");
+        parser.feed("");
+        assertEquals(List.of("message=first\nsecond"), data);
+    }
+}
@@ -0,0 +1,52 @@
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class StudentContextCacheTest {
+
+    private static AcademicCatalog catalog;
+
+    @BeforeAll
+    static void load() throws IOException {
+        catalog = AcademicCatalog.of(AcademicDatabase.load(Path.of("acu_database.txt")));
+    }
+
+    @Test
+    void testRecordListsMajorsAndSections() {
+        StudentContextCache cache = new StudentContextCache(() -> catalog);
+        String record = cache.render(catalog, 1, LocalDate.of(2025, 3, 1));
+        assertTrue(record.contains("Stu1 Student1 (student ID 1)"));
+        assertTrue(record.contains("CRN 10001"));
+        assertTrue(record.contains("Completed courses: none recorded"));
+
+        String later = cache.render(catalog, 1, LocalDate.of(2025, 6, 1));
+        assertTrue(later.contains("Current sections: none"));
+        assertTrue(later.contains("ART105"));
+        assertNull(cache.forStudent(-5));
+    }
+
+    @Test
+    void testLookupByIdAndCaching() {
+        AtomicReference<AcademicCatalog> current = new AtomicReference<>(catalog);
+        StudentContextCache cache = new StudentContextCache(current::get);
+        String first = cache.forStudent(1);
+        assertTrue(first.startsWith("Student record for Stu1 Student1"));
+        assertSame(first, cache.forStudent(1));
+
+        current.set(AcademicCatalog.of(AcademicDatabase.fromTables(new AcademicTableReader().parse(
+                List.of("Table: student", "id firstname lastname", "1 Stu1 Student1")))));
+        String reloaded = cache.forStudent(1);
+        assertNotSame(first, reloaded);
+        assertTrue(reloaded.contains("Majors: none declared"));
+    }
+}
@@ -0,0 +1,38 @@
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StudentDirectoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testOnlyListedAddressesResolve() throws IOException {
+        Path file = Files.writeString(dir.resolve("students.properties"),
+                "stu1@acu.edu=1\nstu2@acu.edu = 2\nbroken@acu.edu=two\n");
+        StudentDirectory directory = new StudentDirectory(file.toFile());
+
+        assertEquals(1, directory.studentIdFor("stu1@acu.edu"));
+        assertEquals(1, directory.studentIdFor(" Stu1@ACU.edu "));
+        assertEquals(2, directory.studentIdFor("stu2@acu.edu"));
+        assertEquals(-1, directory.studentIdFor("stu1.student1@example.com"));
+        assertEquals(-1, directory.studentIdFor("broken@acu.edu"));
+        assertEquals(-1, directory.studentIdFor(null));
+    }
+
+    @Test
+    void testMissingFileResolvesNobodyAndChangesAreReread() throws IOException {
+        Path file = dir.resolve("students.properties");
+        StudentDirectory directory = new StudentDirectory(file.toFile());
+        assertEquals(-1, directory.studentIdFor("stu1@acu.edu"));
+
+        Files.writeString(file, "stu1@acu.edu=1\n");
+        assertEquals(1, directory.studentIdFor("stu1@acu.edu"));
+    }
+}
@@ -0,0 +1,69 @@
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UidHighWaterMarkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testMarkStopsBelowUnacknowledgedUid() {
+        File file = dir.resolve("uids.properties").toFile();
+        UidHighWaterMark mark = new UidHighWaterMark(file);
+        assertEquals(-1, mark.resumeAfter(7));
+
+        mark.fetched(7, List.of(10L, 12L, 15L), 16);
+        assertEquals(9, mark.resumeAfter(7));
+        mark.acknowledge(12);
+        mark.acknowledge(15);
+        assertEquals(9, mark.resumeAfter(7));
+        mark.acknowledge(10);
+        assertEquals(16, mark.resumeAfter(7));
+
+        assertEquals(16, new UidHighWaterMark(file).resumeAfter(7));
+    }
+
+    @Test
+    void testUnacknowledgedUidIsFetchedAgain() {
+        UidHighWaterMark mark = new UidHighWaterMark(dir.resolve("uids.properties").toFile());
+        mark.fetched(7, List.of(), 20);
+
+        mark.fetched(7, List.of(21L), 21);
+        assertTrue(mark.isPending(7, 21));
+        assertEquals(20, mark.resumeAfter(7));
+
+        // The next poll asks for 21:* again and gets the same message back
+        mark.fetched(7, List.of(21L, 22L), 22);
+        assertTrue(mark.isPending(7, 21));
+        assertEquals(20, mark.resumeAfter(7));
+
+        mark.acknowledge(21);
+        mark.acknowledge(22);
+        assertFalse(mark.isPending(7, 21));
+        assertEquals(22, mark.resumeAfter(7));
+    }
+
+    @Test
+    void testNewUidValidityDropsTheMark() throws IOException {
+        File file = dir.resolve("uids.properties").toFile();
+        UidHighWaterMark mark = new UidHighWaterMark(file);
+        mark.fetched(7, List.of(), 40);
+        assertEquals(40, mark.resumeAfter(7));
+
+        assertEquals(-1, mark.resumeAfter(8));
+        mark.fetched(8, List.of(3L), 5);
+        assertEquals(2, mark.resumeAfter(8));
+        assertEquals(-1, mark.resumeAfter(7));
+        assertTrue(Files.readString(file.toPath()).contains("uid.validity=8"));
+    }
+}